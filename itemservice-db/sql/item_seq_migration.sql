@@ -0,0 +1,9 @@
+-- 기존 IDENTITY 테이블을 item_seq 시퀀스로 변경 (데이터 유지)
+-- 1. 기존 최대 ID 이후부터 발급되도록 시작 값 지정 : max(id) + 50
+--    JPA 는 pooled 최적화(allocationSize = 50) => 시퀀스에서 받은 값 v 를 v-49 ~ v 범위의 마지막 ID 로 사용
+--    max(id) + 1 로 시작하면 첫 범위가 max(id) - 48 ~ max(id) + 1 이 되어 기존 ID 와 겹침
+create sequence if not exists item_seq start with 1 increment by 50;
+alter sequence item_seq restart with (select coalesce(max(id), 0) + 50 from item);
+
+-- 2. IDENTITY 를 시퀀스 기본값으로 교체 (ID를 지정하지 않는 JdbcTemplate, MyBatis insert 도 item_seq 사용)
+alter table item alter column id bigint default next value for item_seq;
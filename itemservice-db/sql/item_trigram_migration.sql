@@ -0,0 +1,25 @@
+-- 상품명 3-gram 색인 추가 (선택 사항, 데이터 유지) - schema.sql 다음에 적용
+-- ItemRepository.findAllByNameIndex 는 이 스크립트를 적용한 DB 에서만 사용
+--
+-- 트리거는 H2 가 DB 서버 JVM 에서 직접 실행 => H2 서버 클래스패스에 애플리케이션 클래스가 있어야 함
+--   ./gradlew compileJava
+--   java -cp h2-1.4.200.jar:build/classes/java/main org.h2.tools.Server
+-- (클래스가 없으면 트리거 생성이 실패하고, 적용한 뒤 클래스가 빠지면 item 의 insert/update/delete 가 모두 실패)
+-- 되돌리기 : drop trigger item_name_index; drop table item_trigram;
+--
+-- 1. 색인 테이블, 트리거 생성
+create table if not exists item_trigram
+(
+    gram    varchar(3) not null,
+    item_id bigint     not null,
+    primary key (gram, item_id)
+);
+
+create trigger if not exists item_name_index after insert, update, delete on item
+    for each row call "hello.itemservice.repository.h2.ItemNameIndexTrigger";
+
+-- 2. 기존 상품 색인 (item_name 은 최대 10자 => 3-gram 시작 위치는 1 ~ 8)
+insert into item_trigram (gram, item_id)
+select distinct substring(i.item_name, r.x, 3), i.id
+from item i
+         join system_range(1, 8) r on r.x <= length(i.item_name) - 2;
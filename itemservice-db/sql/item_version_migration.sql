@@ -0,0 +1,2 @@
+-- 기존 item 테이블에 낙관적 락 버전 컬럼 추가 (기존 로우는 0)
+alter table item add column if not exists version bigint default 0 not null;
@@ -1,9 +1,19 @@
+drop table if exists item_trigram;
 drop table if exists item CASCADE;
+drop sequence if exists item_seq;
+
+-- JPA(Item) 는 allocationSize = 50 으로 ID를 미리 할당하므로 increment by 50
+create sequence item_seq start with 1 increment by 50;
+
 create table item
 (
-    id        bigint generated by default as identity,
+    id        bigint default next value for item_seq,
     item_name varchar(10),
     price     integer,
     quantity  integer,
+    version   bigint default 0 not null, -- 낙관적 락 (수정할 때마다 1 증가)
     primary key (id)
 );
+
+-- 상품명 3-gram 색인(item_trigram, ItemRepository.findAllByNameIndex)은 선택 사항
+-- => H2 서버가 애플리케이션 클래스(트리거)를 읽을 수 있을 때만 sql/item_trigram_migration.sql 적용
@@ -0,0 +1,66 @@
+package hello.itemservice.benchmark;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 (웹, 컴포넌트 스캔 없이 *Config 하나만 등록)
+ *
+ * @AutoConfigurationPackage(basePackages = "hello.itemservice")
+ * - @Entity, 스프링 데이터 JPA 리포지토리, @Mapper 를 찾는 기준 패키지
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@AutoConfigurationPackage(basePackages = "hello.itemservice")
+public class BenchmarkApplication {
+
+    /**
+     * @param config hello.itemservice.config 패키지의 설정 클래스 이름 (ex. JdbcTemplateV3Config)
+     * @param database 임베디드 H2 메모리 DB 이름 (벤치마크마다 다른 DB 사용)
+     * @param properties 추가, 변경할 설정 (ex. spring.jpa.properties.hibernate.jdbc.batch_size=50)
+     */
+    public static ConfigurableApplicationContext run(String config, String database, String... properties) {
+        Class<?> configClass;
+        try {
+            configClass = Class.forName("hello.itemservice.config." + config);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("config not found. config=" + config, e);
+        }
+
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.profiles.active", "benchmark");
+        args.put("spring.datasource.url", "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+        //테이블, 시퀀스는 sql/schema.sql 로 생성 (gradle jmh 는 프로젝트 디렉토리에서 실행)
+        //상품명 3-gram 색인도 적용 (H2 를 같은 JVM 에서 실행하므로 트리거 클래스를 읽을 수 있음)
+        args.put("spring.jpa.hibernate.ddl-auto", "none");
+        args.put("spring.sql.init.mode", "always");
+        args.put("spring.sql.init.schema-locations", "file:sql/schema.sql,file:sql/item_trigram_migration.sql");
+        args.put("mybatis.mapper-locations", "classpath:mapper/**/*.xml");
+        //SQL 로그는 측정에 영향을 주므로 끔
+        args.put("logging.level.root", "warn");
+        args.put("logging.level.hello.itemservice", "warn");
+        args.put("logging.level.hello.itemservice.repository.mybatis", "warn");
+        args.put("logging.level.org.springframework.jdbc", "warn");
+        args.put("logging.level.org.hibernate.SQL", "warn");
+        args.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "warn");
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            args.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+
+        return new SpringApplicationBuilder(BenchmarkApplication.class, configClass)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                //application.properties 보다 우선하도록 커맨드 라인 인자로 전달
+                .run(args.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+    }
+}
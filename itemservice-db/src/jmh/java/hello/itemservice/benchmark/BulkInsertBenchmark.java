@@ -0,0 +1,66 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * saveAll 로 대량 저장 (기본 500,000 건) 에 걸리는 시간
+ *
+ * - 측정마다 새 스프링 컨텍스트(빈 DB)에 저장
+ * - save 를 건별로 호출하는 경우와 비교할 수 있도록 saveEach 도 측정 (건수가 많으면 오래 걸림)
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=BulkInsertBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    @Param({"JdbcTemplateV3Config", "MyBatisConfig", "JpaConfig"})
+    private String config;
+
+    @Param({"500000"})
+    private int count;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private List<Item> items;
+    private int run;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        context = BenchmarkApplication.run(config, "bulk_" + config + "_" + run++);
+        itemRepository = context.getBean(ItemRepository.class);
+        items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item("item" + i % 1000, 1000 + i % 10000, i % 100));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> saveAll() {
+        return itemRepository.saveAll(items);
+    }
+
+    @Benchmark
+    public List<Item> saveEach() {
+        for (Item item : items) {
+            itemRepository.save(item);
+        }
+        return items;
+    }
+}
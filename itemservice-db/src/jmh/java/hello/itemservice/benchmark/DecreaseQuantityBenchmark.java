@@ -0,0 +1,113 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.service.ItemServiceV1;
+import hello.itemservice.service.ItemStockReservation;
+import hello.itemservice.service.ItemUpdateRetry;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 상품 하나에 몰린 재고 차감(수량 1 감소) 처리량, 쓰기 스레드 64개
+ *
+ * - decreaseQuantity : update item set quantity = quantity - ? where id = ? and quantity >= ? (조회 없음)
+ * - stripedReserve : ItemStockReservation => 메모리 카운터(16개)에서 차감, 10ms 마다 모아서 decreaseQuantity
+ * - optimisticRetry : 읽고 update ... where version = ?, 충돌하면 다시 읽어서 재시도 (ItemUpdateRetry)
+ *
+ * - 임베디드 메모리 DB 는 round trip 비용이 거의 없으므로 H2 TCP 서버(localhost)로 접속해서 측정
+ * - 재고는 측정 중에 바닥나지 않을 만큼 크게 잡음
+ * - 종료 시 DB 의 남은 수량이 (초기 재고 - 차감 횟수)와 같은지 확인 (optimisticRetry 외에는 잃어버린 차감이 있으면 실패)
+ *   optimisticRetry 는 차이만 출력 : H2 1.4.200 은 트랜잭션 안에서 읽은 뒤 락 대기한 update ... where version = ? 가
+ *   드물게 이미 바뀐 로우를 덮어씀 (QuerydslConfig 에서 수천 건 중 몇 건, 자동 커밋인 JDBC 경로는 재현 안 됨)
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=DecreaseQuantityBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class DecreaseQuantityBenchmark {
+
+    private static final int STOCK = 1_000_000_000;
+
+    @Param({"JdbcTemplateV3Config", "MyBatisConfig", "QuerydslConfig"})
+    private String config;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private ItemUpdateRetry updateRetry;
+    private ItemStockReservation reservation;
+    private Long itemId;
+    private final LongAdder decreased = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String database = "decrease_quantity_" + config;
+        context = BenchmarkApplication.run(config, database,
+                "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + database + ";LOCK_TIMEOUT=10000",
+                "spring.datasource.hikari.maximum-pool-size=64", //=> 커넥션 대기 없이 로우 경합만 비교
+                "logging.level.org.hibernate.engine.jdbc.batch.internal.BatchingBatch=off"); //=> 재시도하는 버전 충돌 로그
+        itemRepository = context.getBean(ItemRepository.class);
+        updateRetry = new ItemUpdateRetry(new ItemServiceV1(itemRepository), Integer.MAX_VALUE, Duration.ofMillis(1));
+        reservation = new ItemStockReservation(itemRepository, 16, Duration.ofMillis(10));
+        itemId = itemRepository.save(new Item("hot", 1000, STOCK)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(BenchmarkParams params) {
+        try {
+            reservation.close(); //=> 남은 차감 반영
+            Integer quantity = new JdbcTemplate(context.getBean(DataSource.class))
+                    .queryForObject("select quantity from item where id = ?", Integer.class, itemId);
+            long lost = quantity - (STOCK - decreased.sum());
+            if (lost != 0 && !params.getBenchmark().endsWith("optimisticRetry")) {
+                throw new IllegalStateException("lost decrease. quantity=" + quantity + ", decreased=" + decreased.sum());
+            }
+            System.out.println("decreased=" + decreased.sum() + ", conflicts=" + updateRetry.conflictCount() + ", lost=" + lost);
+        } finally {
+            context.close();
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public boolean decreaseQuantity() {
+        boolean result = itemRepository.decreaseQuantity(itemId, 1);
+        if (result) {
+            decreased.increment();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public boolean stripedReserve() {
+        boolean result = reservation.reserve(itemId, 1);
+        if (result) {
+            decreased.increment();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void optimisticRetry() {
+        updateRetry.update(itemId, item ->
+                new ItemUpdateDto(item.getItemName(), item.getPrice(), item.getQuantity() - 1));
+        decreased.increment();
+    }
+}
@@ -0,0 +1,103 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.service.ItemBatchLoader;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID count 개 조회 방식별 처리 시간
+ *
+ * - findById : count 번 조회 (round trip count 번)
+ * - findAllByIds : where id in (...) 한 번
+ * - batchLoader : ItemBatchLoader.load 를 count 번 호출 => window 동안 모아서 findAllByIds 한 번
+ *
+ * - 임베디드 메모리 DB 는 round trip 비용이 거의 없으므로 H2 TCP 서버(localhost)로 접속해서 측정
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=FindByIdBatchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class FindByIdBatchBenchmark {
+
+    @Param({"JdbcTemplateV3Config", "MyBatisConfig", "QuerydslConfig"})
+    private String config;
+
+    @Param({"100"})
+    private int count;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private ItemBatchLoader batchLoader;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String database = "find_by_id_" + config;
+        context = BenchmarkApplication.run(config, database,
+                "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + database);
+        itemRepository = context.getBean(ItemRepository.class);
+        batchLoader = new ItemBatchLoader(itemRepository, Duration.ofMillis(1), count);
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            items.add(new Item("item" + i, 1000 + i, i % 100));
+        }
+        ids = new ArrayList<>();
+        for (Item item : itemRepository.saveAll(items)) {
+            if (ids.size() < count) {
+                ids.add(item.getId());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        batchLoader.close();
+        context.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public List<Item> findById() {
+        List<Item> result = new ArrayList<>(count);
+        for (Long id : ids) {
+            itemRepository.findById(id).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Item> findAllByIds() {
+        return itemRepository.findAllByIds(ids);
+    }
+
+    @Benchmark
+    public List<Item> batchLoader() {
+        List<CompletableFuture<Optional<Item>>> futures = new ArrayList<>(count);
+        for (Long id : ids) {
+            futures.add(batchLoader.load(id));
+        }
+        List<Item> result = new ArrayList<>(count);
+        for (CompletableFuture<Optional<Item>> future : futures) {
+            future.join().ifPresent(result::add);
+        }
+        return result;
+    }
+}
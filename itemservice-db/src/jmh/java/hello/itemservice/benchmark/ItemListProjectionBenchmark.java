@@ -0,0 +1,71 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.service.ItemServiceV2;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 목록 조회 : 엔티티(findItemPage) vs DTO 프로젝션(findItemListPage) 요청당 시간, 할당량
+ *
+ * - pageSize 가 클수록 엔티티 생성, 영속성 컨텍스트 등록 비용 차이가 커짐
+ * - 쿼리 비용만 비교하기 위해 2차 캐시, 쿼리 캐시는 끔
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=ItemListProjectionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemListProjectionBenchmark {
+
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    @Param({"10000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemServiceV2 itemService;
+    private ItemSearchCond cond;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.run("V2Config", "projection_" + pageSize,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        itemService = context.getBean(ItemServiceV2.class);
+
+        List<Item> items = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            items.add(new Item("item" + i % 1000, 1000 + i % 10000, i % 100));
+        }
+        context.getBean(ItemRepository.class).saveAll(items);
+        cond = new ItemSearchCond(null, null, null, pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<Item> entityPage() {
+        return itemService.findItemPage(cond);
+    }
+
+    @Benchmark
+    public CursorPage<ItemListDto> projectionPage() {
+        return itemService.findItemListPage(cond);
+    }
+}
@@ -0,0 +1,97 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.service.ItemService;
+import hello.itemservice.service.ItemServiceV2;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemRepository 구현체별 save, findById, update, findAll 처리량 비교 (임베디드 H2)
+ *
+ * - config : 구현체를 등록하는 *Config (V2Config 는 ItemServiceV2 - 스프링 데이터 JPA + Querydsl 경로)
+ * - tableSize : 측정 전에 미리 저장해 두는 상품 수
+ * - 모든 구현체를 ItemService 를 통해 호출 (ItemServiceV1 은 위임만 하므로 저장소 비교와 같음)
+ *   단일 스레드 측정이라 CoalescingItemService 는 합칠 요청 없이 복사본만 만듦
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=ItemRepositoryBenchmark
+ * - gc 프로파일러의 gc.alloc.rate.norm 이 연산 1회당 할당량
+ * - save 는 측정 중에 계속 저장하므로 측정 시간이 길수록 테이블이 커짐
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ItemRepositoryBenchmark {
+
+    @Param({"MemoryConfig", "IndexedMemoryConfig",
+            "JdbcTemplateV1Config", "JdbcTemplateV2Config", "JdbcTemplateV3Config",
+            "MyBatisConfig",
+            "JpaConfig", "SpringDataJpaConfig", "QuerydslConfig",
+            "V2Config"})
+    private String config;
+
+    @Param({"1000", "100000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemSearchCond searchCond;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.run(config, "bench_" + config + "_" + tableSize);
+        itemService = "V2Config".equals(config)
+                ? context.getBean(ItemServiceV2.class)
+                : context.getBean(ItemService.class);
+
+        List<Item> items = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            items.add(new Item("item" + i % 1000, 1000 + i % 10000, i % 100));
+        }
+        context.getBean(ItemRepository.class).saveAll(items);
+
+        //상품명 약 1.1% (item7, item70 ~ item79) 중 가격 조건을 만족하는 상품
+        searchCond = new ItemSearchCond("item7", 5000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemService.save(new Item("bench", 10000, 10));
+    }
+
+    @Benchmark
+    public Optional<Item> findById() {
+        return itemService.findById(randomId());
+    }
+
+    @Benchmark
+    public void update() {
+        itemService.update(randomId(), new ItemUpdateDto("updated", 20000, 20));
+    }
+
+    @Benchmark
+    public List<Item> findAll() {
+        return itemService.findItems(searchCond);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, tableSize + 1);
+    }
+}
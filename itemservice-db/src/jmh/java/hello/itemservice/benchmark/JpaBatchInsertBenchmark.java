@@ -0,0 +1,79 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JPA saveAll(persist) 의 hibernate.jdbc.batch_size 별 처리 시간
+ *
+ * - batchSize = 1 : insert 를 한 건씩 실행 (IDENTITY 를 사용할 때와 같은 방식)
+ * - batchSize = 50 : flush 시점에 50건씩 JDBC 배치로 실행 (시퀀스 ID 라서 가능)
+ *
+ * - 임베디드 메모리 DB 는 round trip 비용이 거의 없으므로 H2 TCP 서버(localhost)로 접속해서 측정
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=JpaBatchInsertBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class JpaBatchInsertBenchmark {
+
+    @Param({"JpaConfig", "SpringDataJpaConfig", "QuerydslConfig"})
+    private String config;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"100000"})
+    private int count;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private List<Item> items;
+    private int run;
+
+    @Setup(Level.Trial)
+    public void startServer() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        String database = "jpa_batch_" + config + "_" + batchSize + "_" + run++;
+        context = BenchmarkApplication.run(config, database,
+                "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + database,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        itemRepository = context.getBean(ItemRepository.class);
+        items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item("item" + i % 1000, 1000 + i % 10000, i % 100));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> saveAll() {
+        return itemRepository.saveAll(items);
+    }
+}
@@ -0,0 +1,74 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.memory.IndexedMemoryItemRepository;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메모리 저장소의 스레드 수에 따른 처리량 (save + update + findById 한 번씩)
+ *
+ * - singleThread : 스레드 1개, allCores : 코어 수만큼 스레드
+ * - 스레드마다 자기 상품을 수정 => 한 상품에 몰리는 경합이 아니라 저장소 전체의 확장성을 측정
+ * - 스프링 컨텍스트 없이 저장소만 직접 생성
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=MemoryItemRepositoryScalingBenchmark
+ * => allCores 처리량 / singleThread 처리량 이 코어 수에 가까울수록 잘 확장됨
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class MemoryItemRepositoryScalingBenchmark {
+
+    @Param({"MemoryItemRepository", "IndexedMemoryItemRepository"})
+    private String repository;
+
+    private ItemRepository itemRepository;
+
+    /**
+     * 반복마다 새 저장소 (save 로 계속 커지지 않도록)
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        itemRepository = "IndexedMemoryItemRepository".equals(repository)
+                ? new IndexedMemoryItemRepository()
+                : new MemoryItemRepository();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadItem {
+        private Long itemId;
+        private int price;
+
+        @Setup(Level.Iteration)
+        public void setUp(MemoryItemRepositoryScalingBenchmark benchmark) {
+            itemId = benchmark.itemRepository.save(new Item("item", 10, 1)).getId();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Item singleThread(ThreadItem threadItem) {
+        return saveFindUpdate(threadItem);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Item allCores(ThreadItem threadItem) {
+        return saveFindUpdate(threadItem);
+    }
+
+    private Item saveFindUpdate(ThreadItem threadItem) {
+        Item saved = itemRepository.save(new Item("item", 10, 1));
+        itemRepository.update(threadItem.itemId, new ItemUpdateDto("item", ++threadItem.price, 1));
+        itemRepository.findById(threadItem.itemId);
+        return saved;
+    }
+}
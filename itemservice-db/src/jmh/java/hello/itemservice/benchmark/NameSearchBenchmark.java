@@ -0,0 +1,83 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품명 부분 검색 : like '%x%' 전체 스캔(findAll) vs 3-gram 색인(findAllByNameIndex) 테이블 크기별 응답 시간
+ *
+ * - 상품명은 소문자 8자 랜덤 문자열, 검색어는 저장된 상품명 중 하나의 가운데 5자 (결과는 보통 1건)
+ * - like 는 테이블 크기에 비례, 색인은 검색어 3-gram 을 가진 로우 수에 비례
+ * - 1,000,000 건은 저장(트리거로 색인 포함)에만 수 분이 걸림
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=NameSearchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class NameSearchBenchmark {
+
+    private static final int NAME_LENGTH = 8;
+    private static final int CHUNK_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private ItemSearchCond cond;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.run("JdbcTemplateV2Config", "name_search_" + tableSize);
+        itemRepository = context.getBean(ItemRepository.class);
+
+        Random random = new Random(1);
+        String searchName = null;
+        for (int from = 0; from < tableSize; from += CHUNK_SIZE) {
+            List<Item> items = new ArrayList<>(CHUNK_SIZE);
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, tableSize); i++) {
+                items.add(new Item(randomName(random), 1000 + i % 10000, i % 100));
+            }
+            itemRepository.saveAll(items);
+            if (searchName == null) {
+                searchName = items.get(items.size() / 2).getItemName().substring(2, 7);
+            }
+        }
+        cond = new ItemSearchCond(searchName, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> like() {
+        return itemRepository.findAll(cond);
+    }
+
+    @Benchmark
+    public List<Item> nameIndex() {
+        return itemRepository.findAllByNameIndex(cond);
+    }
+
+    private static String randomName(Random random) {
+        char[] name = new char[NAME_LENGTH];
+        for (int i = 0; i < NAME_LENGTH; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(name);
+    }
+}
@@ -0,0 +1,113 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.service.ItemServiceV1;
+import hello.itemservice.service.ItemUpdateRetry;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 동시 수정(read-modify-write : 수량 1 증가) 방식별 처리량, 쓰기 스레드 32개
+ *
+ * - optimistic : ItemUpdateRetry => 읽고, update ... where version = ? (충돌하면 다시 읽어서 재시도)
+ * - pessimistic : 트랜잭션 안에서 select ... for update 로 로우 락을 잡고 update (커밋까지 같은 로우 수정은 대기)
+ *
+ * - hotItems : 수정 대상 상품 수 (1 이면 모든 스레드가 같은 로우 수정 => 충돌 최대)
+ * - 임베디드 메모리 DB 는 round trip 비용이 거의 없으므로 H2 TCP 서버(localhost)로 접속해서 측정
+ *   (락을 잡은 동안의 round trip 이 대기 시간에 포함되도록)
+ * - 종료 시 수량 합계가 수정 횟수와 같은지 확인 (잃어버린 수정이 있으면 실패)
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=OptimisticLockBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class OptimisticLockBenchmark {
+
+    private static final String SELECT_FOR_UPDATE_SQL = "select quantity from item where id = ? for update";
+    private static final String UPDATE_SQL = "update item set quantity = ?, version = version + 1 where id = ?";
+
+    @Param({"1", "16", "1000"})
+    private int hotItems;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private ItemUpdateRetry updateRetry;
+    private JdbcTemplate template;
+    private TransactionTemplate transactionTemplate;
+    private long[] ids;
+    private final LongAdder increments = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String database = "optimistic_lock_" + hotItems;
+        context = BenchmarkApplication.run("JdbcTemplateV3Config", database,
+                "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + database + ";LOCK_TIMEOUT=10000",
+                "spring.datasource.hikari.maximum-pool-size=32"); //=> 커넥션 대기 없이 락 대기만 비교
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        updateRetry = new ItemUpdateRetry(new ItemServiceV1(itemRepository), Integer.MAX_VALUE, Duration.ofMillis(1));
+        template = new JdbcTemplate(context.getBean(DataSource.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < hotItems; i++) {
+            items.add(new Item("item" + i, 1000, 0));
+        }
+        ids = itemRepository.saveAll(items).stream().mapToLong(Item::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            Long quantity = template.queryForObject("select sum(quantity) from item", Long.class);
+            if (quantity == null || quantity != increments.sum()) {
+                throw new IllegalStateException("lost update. quantity=" + quantity + ", increments=" + increments.sum());
+            }
+            System.out.println("conflicts=" + updateRetry.conflictCount() + ", increments=" + increments.sum());
+        } finally {
+            context.close();
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public void optimistic() {
+        updateRetry.update(randomId(), item ->
+                new ItemUpdateDto(item.getItemName(), item.getPrice(), item.getQuantity() + 1));
+        increments.increment();
+    }
+
+    @Benchmark
+    public void pessimistic() {
+        long id = randomId();
+        transactionTemplate.executeWithoutResult(status -> {
+            Integer quantity = template.queryForObject(SELECT_FOR_UPDATE_SQL, Integer.class, id);
+            template.update(UPDATE_SQL, quantity + 1, id);
+        });
+        increments.increment();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
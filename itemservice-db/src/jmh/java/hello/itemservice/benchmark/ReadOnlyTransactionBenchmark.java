@@ -0,0 +1,75 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.service.ItemServiceV2;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemServiceV2 조회를 읽기 전용 / 읽기-쓰기 트랜잭션에서 실행할 때의 요청당 시간, 할당량 (상품 10,000 건)
+ *
+ * - readOnly 트랜잭션으로 감싸서 호출 => 서비스의 @Transactional(readOnly = true) 와 같은 동작
+ * - readOnly = false => 변경 전 방식 (스냅샷 생성, 커밋 시 flush + 변경 감지)
+ * - itemPage : /items 요청 (findItemPage, 20건), allItems : 전체 10,000 건 조회
+ * - 트랜잭션 비용만 비교하기 위해 2차 캐시, 쿼리 캐시는 끔
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=ReadOnlyTransactionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadOnlyTransactionBenchmark {
+
+    @Param({"true", "false"})
+    private boolean readOnly;
+
+    @Param({"10000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemServiceV2 itemService;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.run("V2Config", "read_only_" + readOnly,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        itemService = context.getBean(ItemServiceV2.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(readOnly);
+
+        List<Item> items = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            items.add(new Item("item" + i % 1000, 1000 + i % 10000, i % 100));
+        }
+        context.getBean(ItemRepository.class).saveAll(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<Item> itemPage() {
+        return transactionTemplate.execute(status -> itemService.findItemPage(new ItemSearchCond()));
+    }
+
+    @Benchmark
+    public List<Item> allItems() {
+        return transactionTemplate.execute(status -> itemService.findItems(new ItemSearchCond()));
+    }
+}
@@ -0,0 +1,66 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.jdbctemplate.ItemRowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100,000 로우 findAll 에서 RowMapper 별 로우 1건당 시간, 할당량 비교
+ *
+ * - @OperationsPerInvocation(ROWS) => 결과(ns/op, gc.alloc.rate.norm)가 로우 1건 기준
+ * - 같은 쿼리를 실행하므로 차이는 RowMapper 비용 (쿼리 실행, Item 생성 비용은 양쪽에 동일하게 포함)
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=RowMapperBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(RowMapperBenchmark.ROWS)
+public class RowMapperBenchmark {
+
+    static final int ROWS = 100_000;
+
+    private static final String SQL = "select id, item_name, price, quantity from item";
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        template = new JdbcTemplate(dataSource);
+        template.execute("create table item (id bigint generated by default as identity, " +
+                "item_name varchar(10), price integer, quantity integer, primary key (id))");
+        template.update("insert into item (item_name, price, quantity) " +
+                "select concat('i', x), mod(x, 10000), mod(x, 100) from system_range(1, ?)", ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Benchmark
+    public List<Item> beanPropertyRowMapper() {
+        return template.query(SQL, BeanPropertyRowMapper.newInstance(Item.class));
+    }
+
+    @Benchmark
+    public List<Item> itemRowMapper() {
+        return template.query(SQL, new ItemRowMapper());
+    }
+}
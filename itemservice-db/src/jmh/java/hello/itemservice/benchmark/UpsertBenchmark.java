@@ -0,0 +1,102 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.UpsertResult;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 공급처 피드(기본 100,000 건, 절반은 이미 있는 상품)를 반영하는 시간
+ *
+ * - findThenWrite : 상품마다 findById 후 update 또는 save => 상품당 round trip 두 번
+ * - upsertAll : ItemRepository.upsertAll => 1,000 건마다 건수 조회 한 번 + merge 배치 한 번
+ *
+ * - 측정마다 새 스프링 컨텍스트(빈 DB)에 기존 상품을 saveAll 로 저장한 뒤 측정
+ * - 임베디드 메모리 DB 는 round trip 비용이 거의 없으므로 H2 TCP 서버(localhost)로 접속해서 측정
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=UpsertBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class UpsertBenchmark {
+
+    private static final long FEED_ID_START = 1_000_000_000L; //=> item_seq 로 만드는 ID 와 겹치지 않는 범위
+
+    @Param({"JdbcTemplateV3Config", "MyBatisConfig", "JpaConfig"})
+    private String config;
+
+    @Param({"100000"})
+    private int count;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private List<Item> feed;
+    private int run;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String database = "upsert_" + config + "_" + run++;
+        context = BenchmarkApplication.run(config, database,
+                "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + database);
+        itemRepository = context.getBean(ItemRepository.class);
+
+        List<Item> existing = new ArrayList<>(count / 2);
+        for (int i = 0; i < count / 2; i++) {
+            existing.add(new Item("item" + i % 1000, 1000, 10));
+        }
+        itemRepository.saveAll(existing);
+
+        feed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Item item = new Item("item" + i % 1000, 2000 + i % 1000, 20);
+            item.setId(i < existing.size() ? existing.get(i).getId() : FEED_ID_START + i);
+            feed.add(item);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        try {
+            context.close();
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * 지금 방식 : 없으면 save (새 ID 가 생성되므로 피드 ID 를 그대로 쓸 수 없음)
+     */
+    @Benchmark
+    public int findThenWrite() {
+        int inserted = 0;
+        for (Item item : feed) {
+            if (itemRepository.findById(item.getId()).isPresent()) {
+                itemRepository.update(item.getId(),
+                        new ItemUpdateDto(item.getItemName(), item.getPrice(), item.getQuantity()));
+            } else {
+                itemRepository.save(new Item(item.getItemName(), item.getPrice(), item.getQuantity()));
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    @Benchmark
+    public UpsertResult upsertAll() {
+        return itemRepository.upsertAll(feed);
+    }
+}
@@ -0,0 +1,99 @@
+package hello.itemservice.benchmark;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.service.ItemService;
+import hello.itemservice.service.ItemServiceV1;
+import hello.itemservice.service.WriteBehindItemService;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 상품들의 가격을 반복 수정하는 처리량, 쓰기 스레드 8개
+ *
+ * - writeThrough : ItemService.update => 수정마다 update 한 번
+ * - writeBehind : WriteBehindItemService => 버퍼에서 상품별로 합친 뒤 200ms 마다 updateAll (JDBC 배치) 한 번
+ *
+ * - hotItems : 수정 대상 상품 수
+ * - JPA 구성은 제외 : 같은 로우를 동시에 수정하면 버전 없이 수정해도 @Version 으로 커밋 시점에 충돌 (writeThrough 가 실패)
+ * - 임베디드 메모리 DB 는 round trip 비용이 거의 없으므로 H2 TCP 서버(localhost)로 접속해서 측정
+ * - 종료 시 update 호출 수 대비 DB 에 쓴 건수 출력
+ *
+ * 실행 : ./gradlew jmh -Pjmh.includes=WriteBehindBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class WriteBehindBenchmark {
+
+    @Param({"JdbcTemplateV3Config", "MyBatisConfig"})
+    private String config;
+
+    @Param({"100"})
+    private int hotItems;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private WriteBehindItemService writeBehind;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String database = "write_behind_" + config;
+        context = BenchmarkApplication.run(config, database,
+                "spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + database);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        itemService = new ItemServiceV1(itemRepository);
+        writeBehind = new WriteBehindItemService(itemService, 10_000, Duration.ofMillis(200));
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < hotItems; i++) {
+            items.add(new Item("item" + i, 1000, 10));
+        }
+        ids = itemRepository.saveAll(items).stream().mapToLong(Item::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            writeBehind.close();
+            System.out.println("writeBehind updates=" + writeBehind.updateCount() + ", writes=" + writeBehind.writeCount());
+        } finally {
+            context.close();
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public void writeThrough() {
+        itemService.update(randomId(), randomPrice());
+    }
+
+    @Benchmark
+    public void writeBehind() {
+        writeBehind.update(randomId(), randomPrice());
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static ItemUpdateDto randomPrice() {
+        return new ItemUpdateDto("item", ThreadLocalRandom.current().nextInt(1000, 2000), 10);
+    }
+}
@@ -13,11 +13,14 @@ import org.springframework.context.annotation.Profile;
  * @Import(MemoryConfig.class)
  * - MemoryConfig를 설정 파일로 사용한다
  *
+ * ReplicationDataSourceConfig
+ * - item.datasource.primary.url 을 설정한 경우에만 primary/replica 라우팅 DataSource 등록
+ *
  * @SpringBootApplication(scanBasePackages = "hello.itemservice.web")
  * - 특정 패키지 경로만 컴포넌트 스캔을 할 경우 경로 설정
  */
 @Slf4j
-@Import(V2Config.class)
+@Import({V2Config.class, ReplicationDataSourceConfig.class})
 @SpringBootApplication(scanBasePackages = "hello.itemservice.web")
 public class ItemServiceApplication {
 
@@ -2,13 +2,16 @@ package hello.itemservice.config;
 
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV3;
+import hello.itemservice.service.CoalescingItemService;
 import hello.itemservice.service.ItemService;
 import hello.itemservice.service.ItemServiceV1;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.sql.DataSource;
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
@@ -16,8 +19,8 @@ public class JdbcTemplateV3Config {
     private final DataSource dataSource;
 
     @Bean
-    public ItemService itemService() {
-        return new ItemServiceV1(itemRepository());
+    public ItemService itemService(@Value("${item.coalescing.grace-window:0ms}") Duration graceWindow) {
+        return new CoalescingItemService(new ItemServiceV1(itemRepository()), graceWindow);
     }
 
     @Bean
@@ -2,12 +2,15 @@ package hello.itemservice.config;
 
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.jpa.JpaItemRepositoryV1;
+import hello.itemservice.service.CoalescingItemService;
 import hello.itemservice.service.ItemService;
 import hello.itemservice.service.ItemServiceV1;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.persistence.EntityManager;
+import java.time.Duration;
 
 @Configuration
 public class JpaConfig {
@@ -19,8 +22,8 @@ public class JpaConfig {
     }
 
     @Bean
-    public ItemService itemService() {
-        return new ItemServiceV1(itemRepository());
+    public ItemService itemService(@Value("${item.coalescing.grace-window:0ms}") Duration graceWindow) {
+        return new CoalescingItemService(new ItemServiceV1(itemRepository()), graceWindow);
     }
 
     @Bean
@@ -3,12 +3,17 @@ package hello.itemservice.config;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.mybatis.ItemMapper;
 import hello.itemservice.repository.mybatis.MyBatisItemRepository;
+import hello.itemservice.service.CoalescingItemService;
 import hello.itemservice.service.ItemService;
 import hello.itemservice.service.ItemServiceV1;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class MyBatisConfig {
@@ -17,14 +22,15 @@ public class MyBatisConfig {
      * MyBatis 모듈이 Data Source, Transaction Manager 를 다 읽어서 Mapper 와 연결
      */
     private final ItemMapper itemMapper;
+    private final SqlSessionFactory sqlSessionFactory;
 
     @Bean
-    public ItemService itemService() {
-        return new ItemServiceV1(itemRepository());
+    public ItemService itemService(@Value("${item.coalescing.grace-window:0ms}") Duration graceWindow) {
+        return new CoalescingItemService(new ItemServiceV1(itemRepository()), graceWindow);
     }
 
     @Bean
     public ItemRepository itemRepository() {
-        return new MyBatisItemRepository(itemMapper);
+        return new MyBatisItemRepository(itemMapper, sqlSessionFactory);
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package hello.itemservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hello.itemservice.datasource.ReplicationRoutingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * item.datasource.primary.url 을 설정하면 spring.datasource.url 대신 primary + replica 커넥션 풀을 사용
+ *
+ * - 읽기 전용 트랜잭션(@Transactional(readOnly = true)) => replica
+ * - 그 외 => primary
+ * - 리포지토리는 그대로 하나의 DataSource 를 주입 받음 (스프링 부트 기본 DataSource 는 등록되지 않음)
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "item.datasource.primary", name = "url")
+@EnableConfigurationProperties(ReplicationDataSourceProperties.class)
+public class ReplicationDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicationRoutingDataSource routingDataSource) {
+        //트랜잭션 시작 시점에는 프록시 커넥션만 반환, 실제 커넥션은 첫 SQL 실행 시점에 라우팅해서 획득
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * 스프링 빈 종료 시 close() 로 커넥션 풀 종료
+     */
+    @Bean
+    public ReplicationRoutingDataSource routingDataSource(ReplicationDataSourceProperties properties) {
+        DataSource primary = pool("primary", properties.getPrimary());
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(pool("replica-" + i, properties.getReplicas().get(i)));
+        }
+        return new ReplicationRoutingDataSource(primary, replicas);
+    }
+
+    private static DataSource pool(String name, ReplicationDataSourceProperties.Pool pool) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(pool.getUrl())
+                .username(pool.getUsername())
+                .password(pool.getPassword())
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        return dataSource;
+    }
+}
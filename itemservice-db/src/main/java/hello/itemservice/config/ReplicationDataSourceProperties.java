@@ -0,0 +1,27 @@
+package hello.itemservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * item.datasource.primary.url=jdbc:h2:tcp://localhost/~/test
+ * item.datasource.replicas[0].url=jdbc:h2:tcp://localhost/~/test-replica
+ */
+@Data
+@ConfigurationProperties("item.datasource")
+public class ReplicationDataSourceProperties {
+
+    private Pool primary = new Pool();
+    private List<Pool> replicas = new ArrayList<>();
+
+    @Data
+    public static class Pool {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+    }
+}
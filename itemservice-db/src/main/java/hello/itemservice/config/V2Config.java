@@ -1,16 +1,25 @@
 package hello.itemservice.config;
 
 import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.jpa.HibernateCacheStatistics;
 import hello.itemservice.repository.jpa.JpaItemRepositoryV3;
 import hello.itemservice.repository.v2.ItemQueryRepositoryV2;
 import hello.itemservice.repository.v2.ItemRepositoryV2;
+import hello.itemservice.service.CachingItemService;
+import hello.itemservice.service.ItemBatchLoader;
 import hello.itemservice.service.ItemService;
 import hello.itemservice.service.ItemServiceV2;
+import hello.itemservice.service.ItemStockReservation;
+import hello.itemservice.service.ItemUpdateRetry;
+import hello.itemservice.service.WriteBehindItemService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import javax.persistence.EntityManager;
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
@@ -18,8 +27,29 @@ public class V2Config {
     private final EntityManager em;
     private final ItemRepositoryV2 itemRepositoryV2; //SpringDataJPA
 
+    /**
+     * @Primary 컨트롤러는 캐시가 적용된 ItemService 를 주입 받음
+     * - 트랜잭션 AOP 가 적용되도록 ItemServiceV2 는 별도 스프링 빈으로 등록해서 감쌈
+     * - item.write-behind.enabled=true 면 캐시 바깥에서 update 를 모아서 반영 (WriteBehindItemService, 종료 시 close 로 반영)
+     */
     @Bean
-    public ItemService itemService() {
+    @Primary
+    public ItemService itemService(@Value("${item.cache.maximum-size:10000}") long maximumSize,
+                                   @Value("${item.cache.ttl:10s}") Duration ttl,
+                                   @Value("${item.cache.search.maximum-size:1000}") long searchMaximumSize,
+                                   @Value("${item.cache.search.ttl:10s}") Duration searchTtl,
+                                   @Value("${item.write-behind.enabled:false}") boolean writeBehind,
+                                   @Value("${item.write-behind.max-pending:10000}") int maxPending,
+                                   @Value("${item.write-behind.flush-interval:200ms}") Duration flushInterval) {
+        ItemService itemService = new CachingItemService(itemServiceV2(), maximumSize, ttl, searchMaximumSize, searchTtl);
+        if (writeBehind) {
+            return new WriteBehindItemService(itemService, maxPending, flushInterval);
+        }
+        return itemService;
+    }
+
+    @Bean
+    public ItemServiceV2 itemServiceV2() {
         return new ItemServiceV2(itemRepositoryV2, itemQueryRepository());
     }
 
@@ -32,4 +62,37 @@ public class V2Config {
     public ItemRepository itemRepository() {
         return new JpaItemRepositoryV3(em);
     }
+
+    /**
+     * findById 를 반복 호출하는 쪽에서 사용 => window 동안 모인 조회를 where id in (...) 한 번으로 처리
+     */
+    @Bean
+    public ItemBatchLoader itemBatchLoader(@Value("${item.batch-loader.window:2ms}") Duration window,
+                                           @Value("${item.batch-loader.max-batch-size:100}") int maxBatchSize) {
+        return new ItemBatchLoader(itemRepository(), window, maxBatchSize);
+    }
+
+    /**
+     * 일괄 수정 작업용 => 버전 충돌이면 최신 값을 다시 읽어서 재시도
+     */
+    @Bean
+    public ItemUpdateRetry itemUpdateRetry(ItemService itemService,
+                                           @Value("${item.update-retry.max-attempts:5}") int maxAttempts,
+                                           @Value("${item.update-retry.backoff:5ms}") Duration backoff) {
+        return new ItemUpdateRetry(itemService, maxAttempts, backoff);
+    }
+
+    /**
+     * 주문이 몰리는 상품의 재고 차감 => 메모리 카운터에서 차감하고 flush-interval 마다 DB 에 반영
+     */
+    @Bean
+    public ItemStockReservation itemStockReservation(@Value("${item.stock.shards:8}") int shards,
+                                                     @Value("${item.stock.flush-interval:100ms}") Duration flushInterval) {
+        return new ItemStockReservation(itemRepository(), shards, flushInterval);
+    }
+
+    @Bean
+    public HibernateCacheStatistics hibernateCacheStatistics() {
+        return new HibernateCacheStatistics(em.getEntityManagerFactory());
+    }
 }
@@ -0,0 +1,64 @@
+package hello.itemservice.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 replica, 그 외(쓰기 트랜잭션, 트랜잭션 없음)는 primary 로 보내는 DataSource
+ *
+ * - replica 가 여러 개면 라운드 로빈
+ * - 트랜잭션의 readOnly 여부는 커넥션을 획득한 뒤에 설정되므로
+ *   반드시 LazyConnectionDataSourceProxy 로 감싸서 사용 (첫 SQL 실행 시점에 라우팅) => ReplicationDataSourceConfig.dataSource
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica-";
+
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private final int replicaCount;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA + i, replicas.get(i));
+        }
+        this.dataSources.add(primary);
+        this.dataSources.addAll(replicas);
+        this.replicaCount = replicas.size();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaCount == 0 || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return REPLICA + Math.floorMod(counter.getAndIncrement(), replicaCount);
+    }
+
+    /**
+     * primary, replica 커넥션 풀 종료
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+}
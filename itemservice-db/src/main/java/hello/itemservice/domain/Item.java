@@ -1,17 +1,31 @@
 package hello.itemservice.domain;
 
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 
-import static javax.persistence.GenerationType.IDENTITY;
+import static javax.persistence.GenerationType.SEQUENCE;
 
 @Data
 @Entity //=> JPA가 사용하는 객체
 @Table(name = "item") //=> 객체명과 테이블명이 같이면 생략 가능
+@Cacheable //=> 2차 캐시 (영속성 컨텍스트가 달라도 DB 대신 캐시에서 조회)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Item.CACHE_REGION) //=> 변경 감지로 수정되면 커밋 시 캐시도 갱신
+@DynamicUpdate //=> 변경 감지로 바뀐 컬럼만 update (기본은 모든 컬럼, 바뀐 컬럼 조합마다 SQL 이 달라짐)
+@SequenceGenerator(name = "item_seq_generator", sequenceName = "item_seq", allocationSize = 50)
 public class Item {
 
-    @Id @GeneratedValue(strategy = IDENTITY) //=> 테이블 PK와 매핑
+    public static final String CACHE_REGION = "item";
+
+    /**
+     * IDENTITY 는 persist 시점에 insert 를 바로 실행해야 ID를 알 수 있어서 JDBC 배치가 꺼짐
+     * => 시퀀스 + pooled 최적화 : 시퀀스를 한 번 조회할 때마다 ID 50개를 메모리에서 할당, insert 는 flush 시점에 배치로 실행
+     * (item_seq 는 increment by 50, id 컬럼 기본값도 item_seq 이므로 JdbcTemplate, MyBatis insert 와 ID가 겹치지 않음)
+     */
+    @Id @GeneratedValue(strategy = SEQUENCE, generator = "item_seq_generator") //=> 테이블 PK와 매핑
     private Long id;
 
     @Column(name = "item_name", length = 10) //=> 객체 필드를 테이블 컬럼과 매핑(카멜케이스 언더스코어 자동 변환)
@@ -19,6 +33,14 @@ public class Item {
     private Integer price;
     private Integer quantity;
 
+    /**
+     * 낙관적 락 : 수정할 때마다 1 증가, update ... where id = ? and version = ? 로 수정
+     * => 읽은 뒤 다른 요청이 먼저 수정했으면 수정된 로우가 0건 => OptimisticLockingFailureException
+     * (새 Item 은 null => 스프링 데이터 JPA 의 save 가 persist 로 처리, 저장되면 0)
+     */
+    @Version
+    private Long version;
+
     public Item() { //=> JPA는 기본 생성자가 필수(Proxy 기술 사용을 위함)
     }
 
@@ -27,4 +49,15 @@ public class Item {
         this.price = price;
         this.quantity = quantity;
     }
+
+    /**
+     * id, version 까지 같은 새 Item (영속성 컨텍스트, 캐시에 있는 인스턴스를 밖으로 내보내거나 보관할 때 사용)
+     * 프록시에서 호출해도 되도록 필드 대신 getter 로 읽음
+     */
+    public Item copy() {
+        Item copy = new Item(getItemName(), getPrice(), getQuantity());
+        copy.setId(getId());
+        copy.setVersion(getVersion());
+        return copy;
+    }
 }
@@ -0,0 +1,61 @@
+package hello.itemservice.repository;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 키셋(커서) 페이징 결과
+ * nextCursor 를 다음 요청의 ItemSearchCond.afterId 로 전달 (마지막 페이지면 null)
+ */
+@Getter
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private final List<T> content;
+    private final Long nextCursor;
+
+    public CursorPage(List<T> content, Long nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * limit + 1 건으로 조회한 결과를 받아서 페이지를 만든다.
+     * limit 보다 많이 조회되었으면 다음 페이지가 존재
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> idGetter) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, limit);
+        return new CursorPage<>(content, idGetter.apply(content.get(limit - 1)));
+    }
+
+    /**
+     * 페이지 조회용 조건 (limit + 1 건 조회)
+     */
+    public static ItemSearchCond probe(ItemSearchCond cond) {
+        return new ItemSearchCond(cond.getItemName(), cond.getMaxPrice(), cond.getAfterId(), limitOf(cond) + 1);
+    }
+
+    /**
+     * 페이지 크기 (요청 파라미터 그대로 들어오므로 범위를 맞춤)
+     * - 없거나 1 미만이면 DEFAULT_LIMIT
+     * - MAX_LIMIT 보다 크면 MAX_LIMIT => 한 페이지가 전체 스캔이 되지 않도록, limit + 1 도 넘치지 않음
+     */
+    public static int limitOf(ItemSearchCond cond) {
+        Integer limit = cond.getLimit();
+        if (limit == null || limit < 1) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
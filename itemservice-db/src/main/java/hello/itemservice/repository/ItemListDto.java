@@ -0,0 +1,20 @@
+package hello.itemservice.repository;
+
+import hello.itemservice.domain.Item;
+import lombok.Value;
+
+/**
+ * 상품 목록 화면용 조회 DTO (엔티티가 아니므로 영속성 컨텍스트, 스냅샷이 생기지 않음)
+ * 불변 객체 => 캐시에 그대로 저장하고 공유해도 안전
+ */
+@Value
+public class ItemListDto {
+    Long id;
+    String itemName;
+    Integer price;
+    Integer quantity;
+
+    public static ItemListDto of(Item item) {
+        return new ItemListDto(item.getId(), item.getItemName(), item.getPrice(), item.getQuantity());
+    }
+}
@@ -0,0 +1,148 @@
+package hello.itemservice.repository;
+
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 상품명 3-gram 색인 (item_trigram 테이블) 검색 SQL
+ *
+ * item_name like '%x%' 는 어떤 인덱스도 사용할 수 없어서 항상 전체 스캔
+ * - item 테이블 트리거(ItemNameIndexTrigger)가 insert, update, delete 시 상품명의 3-gram 을 item_trigram 에 반영
+ * - 검색어의 3-gram 을 모두 가진 item_id 만 후보로 조회 (item_trigram PK(gram, item_id) 인덱스)
+ * - 후보는 like 로 한 번 더 확인하므로 결과는 findAll 과 같음 (항상 id 순)
+ * => 조회 비용은 테이블 크기가 아니라 검색어 3-gram 을 가진 로우 수에 비례
+ *
+ * 3-gram 을 만들 수 없는 검색어(3글자 미만, like 와일드카드 포함)는 색인을 사용할 수 없음 => supports() 확인 후 findAll
+ */
+public final class ItemNameIndex {
+
+    public static final int GRAM = 3;
+
+    private static final int MAX_PRICE = 1;
+    private static final int AFTER_ID = 1 << 1;
+    private static final int LIMIT = 1 << 2;
+    private static final int SHAPES = 1 << 3;
+
+    private static final String[] NAMED = new String[SHAPES];
+    private static final String[] POSITIONAL = new String[SHAPES];
+
+    static {
+        for (int shape = 0; shape < SHAPES; shape++) {
+            NAMED[shape] = build(shape, true);
+            POSITIONAL[shape] = build(shape, false);
+        }
+    }
+
+    private ItemNameIndex() {
+    }
+
+    /**
+     * 색인으로 검색할 수 있는 상품명 조건인지
+     */
+    public static boolean supports(ItemSearchCond cond) {
+        String itemName = cond.getItemName();
+        return StringUtils.hasText(itemName) && itemName.length() >= GRAM
+                && itemName.indexOf('%') < 0 && itemName.indexOf('_') < 0;
+    }
+
+    /**
+     * 중복을 제거한 3-gram (등장 순서)
+     */
+    public static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * :grams(컬렉션), :gramCount, :itemName, :maxPrice, :afterId, :limit 파라미터를 사용하는 SQL
+     * (NamedParameterJdbcTemplate, JPA 네이티브 쿼리)
+     */
+    public static String named(ItemSearchCond cond) {
+        return NAMED[shapeOf(cond)];
+    }
+
+    public static Map<String, Object> namedParameters(ItemSearchCond cond) {
+        Set<String> grams = grams(cond.getItemName());
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("grams", grams);
+        params.put("gramCount", grams.size());
+        params.put("itemName", cond.getItemName());
+        if (cond.getMaxPrice() != null) {
+            params.put("maxPrice", cond.getMaxPrice());
+        }
+        if (cond.getAfterId() != null) {
+            params.put("afterId", cond.getAfterId());
+        }
+        if (cond.getLimit() != null) {
+            params.put("limit", cond.getLimit());
+        }
+        return params;
+    }
+
+    /**
+     * gram = any(?) 로 3-gram 목록을 배열 파라미터 하나로 전달 (JdbcTemplate)
+     */
+    public static String positional(ItemSearchCond cond) {
+        return POSITIONAL[shapeOf(cond)];
+    }
+
+    public static Object[] positionalArguments(ItemSearchCond cond) {
+        Set<String> grams = grams(cond.getItemName());
+        List<Object> args = new ArrayList<>(6);
+        args.add(grams.toArray(new String[0]));
+        args.add(grams.size());
+        args.add(cond.getItemName());
+        if (cond.getMaxPrice() != null) {
+            args.add(cond.getMaxPrice());
+        }
+        if (cond.getAfterId() != null) {
+            args.add(cond.getAfterId());
+        }
+        if (cond.getLimit() != null) {
+            args.add(cond.getLimit());
+        }
+        return args.toArray();
+    }
+
+    private static int shapeOf(ItemSearchCond cond) {
+        int shape = 0;
+        if (cond.getMaxPrice() != null) {
+            shape |= MAX_PRICE;
+        }
+        if (cond.getAfterId() != null) {
+            shape |= AFTER_ID;
+        }
+        if (cond.getLimit() != null) {
+            shape |= LIMIT;
+        }
+        return shape;
+    }
+
+    private static String build(int shape, boolean named) {
+        StringBuilder sql = new StringBuilder("select id, item_name, price, quantity, version from item")
+                .append(" where id in (select item_id from item_trigram")
+                .append(named ? " where gram in (:grams)" : " where gram = any(?)")
+                .append(" group by item_id having count(*) = ").append(named ? ":gramCount" : "?").append(")")
+                .append(" and item_name like concat('%',").append(named ? ":itemName" : "?").append(",'%')");
+        if ((shape & MAX_PRICE) != 0) {
+            sql.append(" and price <= ").append(named ? ":maxPrice" : "?");
+        }
+        if ((shape & AFTER_ID) != 0) {
+            sql.append(" and id > ").append(named ? ":afterId" : "?");
+        }
+        sql.append(" order by id");
+        if ((shape & LIMIT) != 0) {
+            sql.append(" limit ").append(named ? ":limit" : "?");
+        }
+        return sql.toString();
+    }
+}
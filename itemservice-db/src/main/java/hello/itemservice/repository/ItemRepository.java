@@ -2,17 +2,101 @@ package hello.itemservice.repository;
 
 import hello.itemservice.domain.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public interface ItemRepository {
 
     Item save(Item item);
 
+    /**
+     * 여러 건을 한 번에 저장 (구현체별 JDBC 배치 사용)
+     * 생성된 ID는 반환되는 각 Item 에 설정
+     */
+    List<Item> saveAll(List<Item> items);
+
+    /**
+     * 수정할 때마다 version 1 증가
+     * updateParam.version 이 있으면 현재 버전이 같을 때만 수정 (update ... where id = ? and version = ?)
+     * => 다른 요청이 먼저 수정했으면 OptimisticLockingFailureException
+     */
     void update(Long itemId, ItemUpdateDto updateParam);
 
+    /**
+     * 여러 건을 한 번에 수정 (key: itemId)
+     * 버전 확인은 update 와 같고, 버전이 맞지 않는 건이 있으면 OptimisticLockingFailureException
+     * (트랜잭션 밖에서 호출하면 JDBC, MyBatis 구현체는 나머지 건이 반영된 상태로 남음)
+     */
+    void updateAll(Map<Long, ItemUpdateDto> updateParams);
+
+    /**
+     * 재고 차감 : update item set quantity = quantity - :delta where id = :id and quantity >= :delta
+     * - 조회 없이 SQL 한 번으로 차감 => 동시에 차감해도 잃어버리는 차감이 없고, 수량이 음수가 되지 않음
+     * - 차감했으면 true, 재고가 부족하거나 상품이 없으면 false
+     * - version 도 1 증가 (먼저 읽고 수정하는 update 는 버전 충돌로 감지)
+     *
+     * @param delta 차감할 수량 (1 이상)
+     */
+    boolean decreaseQuantity(Long itemId, int delta);
+
+    /**
+     * 공급처 피드 반영용 : 각 Item 의 id 로 있으면 수정, 없으면 그 id 로 저장 (조회 없이 MERGE)
+     * - id 는 필수 (없으면 InvalidDataAccessApiUsageException, 아무것도 반영하지 않음)
+     * - 피드의 ID 는 item_seq 로 생성하는 ID 와 겹치지 않는 범위를 사용
+     * - 수정하면 version 1 증가, 새로 저장하면 0 (넘겨준 Item 의 id, version 은 바꾸지 않음)
+     * - ItemUpsert.CHUNK_SIZE 건씩 나누어 JDBC 배치로 실행 => 목록을 한 번만 순회, 건수와 관계없이 청크 단위 메모리
+     * (트랜잭션 밖에서 호출하면 JDBC, MyBatis 구현체는 청크마다 반영됨)
+     */
+    UpsertResult upsertAll(List<Item> items);
+
     Optional<Item> findById(Long id);
 
+    /**
+     * 여러 ID를 한 번에 조회 (where id in (...) 한 번)
+     * 없는 ID는 결과에서 빠지고, 결과 순서는 보장하지 않음
+     */
+    List<Item> findAllByIds(Collection<Long> ids);
+
+    /**
+     * cond.afterId, cond.limit 이 있으면 where id > :afterId order by id limit :limit 로 조회
+     */
     List<Item> findAll(ItemSearchCond cond);
 
+    /**
+     * 상품명 3-gram 색인(item_trigram)으로 후보를 좁혀서 조회 (결과는 findAll 과 같음)
+     * 색인이 없는 구현체, 색인으로 찾을 수 없는 검색어(ItemNameIndex.supports)는 findAll
+     * DB 구현체는 sql/item_trigram_migration.sql 을 적용한 DB 에서만 사용 (기본 schema.sql 에는 색인이 없음)
+     */
+    default List<Item> findAllByNameIndex(ItemSearchCond cond) {
+        return findAll(cond);
+    }
+
+    /**
+     * 조회 결과를 한 건씩 action 에 전달 (export, 재색인 등 대용량 처리용)
+     * 전체 결과를 List 로 만들지 않으므로 테이블 크기와 무관하게 메모리 사용량 일정
+     */
+    void forEach(ItemSearchCond cond, Consumer<Item> action);
+
+    /**
+     * 키셋(커서) 페이징 조회
+     */
+    default CursorPage<Item> findPage(ItemSearchCond cond) {
+        return CursorPage.of(findAll(CursorPage.probe(cond)), CursorPage.limitOf(cond), Item::getId);
+    }
+
+    /**
+     * 목록 화면용 키셋 페이징 조회 (DTO)
+     * JPA 구현체는 엔티티 대신 DTO 를 직접 조회하도록 재정의
+     */
+    default CursorPage<ItemListDto> findListPage(ItemSearchCond cond) {
+        CursorPage<Item> page = findPage(cond);
+        return new CursorPage<>(page.getContent().stream()
+                .map(ItemListDto::of)
+                .collect(Collectors.toList()), page.getNextCursor());
+    }
+
 }
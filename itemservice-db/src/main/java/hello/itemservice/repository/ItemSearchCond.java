@@ -8,6 +8,15 @@ public class ItemSearchCond {
     private String itemName;
     private Integer maxPrice;
 
+    /**
+     * 키셋(커서) 페이징
+     * - afterId : 이전 페이지의 마지막 ID (해당 ID 이후부터 조회)
+     * - limit : 조회할 최대 건수
+     * 둘 중 하나라도 있으면 id 순으로 정렬
+     */
+    private Long afterId;
+    private Integer limit;
+
     public ItemSearchCond() {
     }
 
@@ -15,4 +24,15 @@ public class ItemSearchCond {
         this.itemName = itemName;
         this.maxPrice = maxPrice;
     }
+
+    public ItemSearchCond(String itemName, Integer maxPrice, Long afterId, Integer limit) {
+        this.itemName = itemName;
+        this.maxPrice = maxPrice;
+        this.afterId = afterId;
+        this.limit = limit;
+    }
+
+    public boolean isPaged() {
+        return afterId != null || limit != null;
+    }
 }
@@ -1,13 +1,24 @@
 package hello.itemservice.repository;
 
+import hello.itemservice.domain.Item;
 import lombok.Data;
 
+/**
+ * 부분 수정 : null 인 필드는 수정하지 않음 (이전 값 유지)
+ */
 @Data
 public class ItemUpdateDto {
     private String itemName;
     private Integer price;
     private Integer quantity;
 
+    /**
+     * 수정 폼을 열 때 읽은 Item.version
+     * - null : 버전 확인 없이 수정 (마지막 수정이 반영됨)
+     * - 값이 있으면 현재 버전이 같을 때만 수정, 다르면 OptimisticLockingFailureException
+     */
+    private Long version;
+
     public ItemUpdateDto() {
     }
 
@@ -16,4 +27,32 @@ public class ItemUpdateDto {
         this.price = price;
         this.quantity = quantity;
     }
+
+    public ItemUpdateDto(String itemName, Integer price, Integer quantity, Long version) {
+        this(itemName, price, quantity);
+        this.version = version;
+    }
+
+    /**
+     * 버전을 지정하지 않았거나 현재 버전과 같으면 true
+     */
+    public boolean matchesVersion(Long currentVersion) {
+        return version == null || version.equals(currentVersion);
+    }
+
+    /**
+     * null 이 아닌 필드만 item 에 반영
+     * (JPA 엔티티면 값이 바뀐 필드만 변경 감지 대상 => Item 의 @DynamicUpdate 로 바뀐 컬럼만 update)
+     */
+    public void applyTo(Item item) {
+        if (itemName != null) {
+            item.setItemName(itemName);
+        }
+        if (price != null) {
+            item.setPrice(price);
+        }
+        if (quantity != null) {
+            item.setQuantity(quantity);
+        }
+    }
 }
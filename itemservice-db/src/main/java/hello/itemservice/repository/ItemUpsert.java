@@ -0,0 +1,78 @@
+package hello.itemservice.repository;
+
+import hello.itemservice.domain.Item;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * upsertAll 공통 SQL, JDBC 배치 (JdbcTemplate 구현체는 ConnectionCallback, JPA 구현체는 Session.doReturningWork 로 실행)
+ *
+ * - merge into item t using (select ? id, ...) s on (t.id = s.id)
+ *   있으면 update (version + 1), 없으면 insert (version 0) => 조회 없이 한 문장
+ * - MERGE INTO item KEY(id) 는 쓰지 않음 : 수정해도 version 이 그대로
+ *   => 먼저 읽은 버전으로 수정하는 update 가 피드 반영을 덮어써도 충돌로 감지하지 못함
+ * - 청크마다 merge 전에 청크의 ID 중 이미 있는 건수를 센다 (id = any(?) 한 번)
+ *   => inserted = 청크의 서로 다른 ID 수 - 이미 있던 건수, updated = 나머지
+ *   (트랜잭션 밖에서 같은 ID 를 동시에 저장하면 건수는 어긋날 수 있음, 저장된 값은 merge 결과 그대로)
+ */
+public final class ItemUpsert {
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private static final String MERGE_SQL = "merge into item t using (select cast(? as bigint) id," +
+            " cast(? as varchar(10)) item_name, cast(? as int) price, cast(? as int) quantity) s on (t.id = s.id)" +
+            " when matched then update set item_name = s.item_name, price = s.price, quantity = s.quantity," +
+            " version = t.version + 1" +
+            " when not matched then insert (id, item_name, price, quantity, version)" +
+            " values (s.id, s.item_name, s.price, s.quantity, 0)";
+    private static final String COUNT_SQL = "select count(*) from item where id = any(?)";
+
+    private ItemUpsert() {
+    }
+
+    /**
+     * 첫 청크를 실행하기 전에 확인 (ID 가 없는 건 때문에 일부 청크만 반영되지 않도록)
+     */
+    public static void requireIds(List<Item> items) {
+        for (Item item : items) {
+            if (item.getId() == null) {
+                throw new InvalidDataAccessApiUsageException("upsert requires item id. item=" + item);
+            }
+        }
+    }
+
+    /**
+     * 청크 하나 (CHUNK_SIZE 이하) : 건수 조회 한 번 + merge 배치 한 번
+     */
+    public static UpsertResult upsert(Connection con, List<Item> chunk) throws SQLException {
+        Long[] ids = chunk.stream().map(Item::getId).distinct().toArray(Long[]::new);
+        long existing;
+        try (PreparedStatement ps = con.prepareStatement(COUNT_SQL)) {
+            ps.setObject(1, ids);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                existing = rs.getLong(1);
+            }
+        }
+
+        try (PreparedStatement ps = con.prepareStatement(MERGE_SQL)) {
+            for (Item item : chunk) {
+                ps.setLong(1, item.getId());
+                ps.setString(2, item.getItemName());
+                ps.setObject(3, item.getPrice(), Types.INTEGER);
+                ps.setObject(4, item.getQuantity(), Types.INTEGER);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        long inserted = ids.length - existing;
+        return new UpsertResult(inserted, chunk.size() - inserted);
+    }
+}
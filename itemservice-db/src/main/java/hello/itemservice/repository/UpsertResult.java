@@ -0,0 +1,24 @@
+package hello.itemservice.repository;
+
+import lombok.Value;
+
+/**
+ * upsertAll 결과 : 새로 저장한 건수, 수정한 건수
+ * (같은 ID 가 여러 번 있으면 처음 한 건만 inserted, 나머지는 updated)
+ */
+@Value
+public class UpsertResult {
+
+    public static final UpsertResult EMPTY = new UpsertResult(0, 0);
+
+    long inserted;
+    long updated;
+
+    public UpsertResult plus(UpsertResult other) {
+        return new UpsertResult(inserted + other.inserted, updated + other.updated);
+    }
+
+    public long total() {
+        return inserted + updated;
+    }
+}
@@ -0,0 +1,90 @@
+package hello.itemservice.repository.h2;
+
+import hello.itemservice.repository.ItemNameIndex;
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * item 테이블 변경 시 상품명 3-gram 색인(item_trigram)을 갱신하는 H2 트리거 (sql/item_trigram_migration.sql 에서 등록)
+ *
+ * - 같은 커넥션(트랜잭션)에서 실행되므로 item 변경이 롤백되면 색인 변경도 함께 롤백
+ * - 상품명이 바뀌지 않은 update (가격, 수량 변경)는 색인을 건드리지 않음
+ * - H2 가 이 클래스를 로드하므로 H2 서버(tcp)로 실행할 때는 서버 클래스패스에도 필요
+ */
+public class ItemNameIndexTrigger implements Trigger {
+
+    private static final String INSERT_SQL = "insert into item_trigram (gram, item_id) values (?, ?)";
+    private static final String DELETE_SQL = "delete from item_trigram where gram = ? and item_id = ?";
+
+    private int idIndex = -1;
+    private int itemNameIndex = -1;
+
+    /**
+     * 컬럼 위치는 트리거를 만들 때 한 번만 조회
+     */
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (rs.next()) {
+                String column = rs.getString("COLUMN_NAME");
+                if ("ID".equalsIgnoreCase(column)) {
+                    idIndex = rs.getInt("ORDINAL_POSITION") - 1;
+                } else if ("ITEM_NAME".equalsIgnoreCase(column)) {
+                    itemNameIndex = rs.getInt("ORDINAL_POSITION") - 1;
+                }
+            }
+        }
+        if (idIndex < 0 || itemNameIndex < 0) {
+            throw new SQLException("id, item_name column not found. table=" + tableName);
+        }
+    }
+
+    /**
+     * insert : oldRow == null, delete : newRow == null
+     */
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (oldRow != null && newRow != null
+                && Objects.equals(oldRow[idIndex], newRow[idIndex])
+                && Objects.equals(oldRow[itemNameIndex], newRow[itemNameIndex])) {
+            return;
+        }
+        if (oldRow != null) {
+            execute(conn, DELETE_SQL, oldRow);
+        }
+        if (newRow != null) {
+            execute(conn, INSERT_SQL, newRow);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+
+    private void execute(Connection conn, String sql, Object[] row) throws SQLException {
+        String itemName = (String) row[itemNameIndex];
+        if (itemName == null || itemName.length() < ItemNameIndex.GRAM) {
+            return;
+        }
+        Set<String> grams = ItemNameIndex.grams(itemName);
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (String gram : grams) {
+                ps.setString(1, gram);
+                ps.setLong(2, ((Number) row[idIndex]).longValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package hello.itemservice.repository.jdbctemplate;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemUpsert;
+import hello.itemservice.repository.UpsertResult;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JdbcTemplate.batchUpdate 는 생성된 키를 돌려주지 않기 때문에
+ * PreparedStatement 배치를 직접 실행하고 getGeneratedKeys 로 ID를 채운다.
+ *
+ * BATCH_SIZE 단위로 나누어 executeBatch (한 번의 round trip 으로 여러 건 insert)
+ *
+ * upsert 도 같은 방식 : ItemUpsert.CHUNK_SIZE 단위로 커넥션을 얻어 merge 배치 실행
+ */
+class ItemBatchInsert {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final String SQL = "insert into item (item_name, price, quantity) values (?, ?, ?)";
+
+    private ItemBatchInsert() {
+    }
+
+    static List<Item> insert(JdbcOperations template, List<Item> items) {
+        for (int from = 0; from < items.size(); from += BATCH_SIZE) {
+            List<Item> chunk = items.subList(from, Math.min(from + BATCH_SIZE, items.size()));
+            template.execute((ConnectionCallback<Void>) con -> {
+                try (PreparedStatement ps = con.prepareStatement(SQL, new String[]{"id"})) {
+                    for (Item item : chunk) {
+                        ps.setString(1, item.getItemName());
+                        ps.setObject(2, item.getPrice(), Types.INTEGER); //=> null 허용 (save 와 같음)
+                        ps.setObject(3, item.getQuantity(), Types.INTEGER);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    // 배치 순서대로 생성된 키가 반환됨
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        int index = 0;
+                        while (rs.next()) {
+                            Item item = chunk.get(index++);
+                            item.setId(rs.getLong(1));
+                            item.setVersion(0L); // version 은 기본값 0
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        return items;
+    }
+
+    static UpsertResult upsert(JdbcOperations template, List<Item> items) {
+        ItemUpsert.requireIds(items);
+        UpsertResult result = UpsertResult.EMPTY;
+        for (int from = 0; from < items.size(); from += ItemUpsert.CHUNK_SIZE) {
+            List<Item> chunk = items.subList(from, Math.min(from + ItemUpsert.CHUNK_SIZE, items.size()));
+            result = result.plus(template.execute((ConnectionCallback<UpsertResult>) con -> ItemUpsert.upsert(con, chunk)));
+        }
+        return result;
+    }
+}
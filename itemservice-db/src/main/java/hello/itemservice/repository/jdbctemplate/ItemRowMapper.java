@@ -0,0 +1,96 @@
+package hello.itemservice.repository.jdbctemplate;
+
+import hello.itemservice.domain.Item;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Item 전용 RowMapper (BeanPropertyRowMapper 대체)
+ *
+ * - BeanPropertyRowMapper 는 로우마다 컬럼명으로 프로퍼티를 찾고 리플렉션 + 타입 변환으로 값을 넣음
+ * - ItemRowMapper 는 첫 로우에서 컬럼 위치를 한 번만 찾고, 이후에는 위치(index)로 바로 읽어서 setter 호출
+ * - select 에 없는 컬럼은 읽지 않음 => 일부 컬럼만 조회하는 쿼리(프로젝션)에도 사용 가능
+ * - 컬럼 위치를 상태로 가지므로 쿼리마다 새로 생성해서 사용 (스레드 안전하지 않음)
+ */
+public class ItemRowMapper implements RowMapper<Item> {
+
+    private static final int ABSENT = 0;
+
+    private ResultSet resolvedResultSet;
+    private int idIndex;
+    private int itemNameIndex;
+    private int priceIndex;
+    private int quantityIndex;
+    private int versionIndex;
+
+    @Override
+    public Item mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (rs != resolvedResultSet) {
+            resolveColumns(rs);
+        }
+
+        Item item = new Item();
+        if (idIndex != ABSENT) {
+            long id = rs.getLong(idIndex);
+            item.setId(rs.wasNull() ? null : id);
+        }
+        if (itemNameIndex != ABSENT) {
+            item.setItemName(rs.getString(itemNameIndex));
+        }
+        if (priceIndex != ABSENT) {
+            item.setPrice(getInteger(rs, priceIndex));
+        }
+        if (quantityIndex != ABSENT) {
+            item.setQuantity(getInteger(rs, quantityIndex));
+        }
+        if (versionIndex != ABSENT) {
+            long version = rs.getLong(versionIndex);
+            item.setVersion(rs.wasNull() ? null : version);
+        }
+        return item;
+    }
+
+    /**
+     * 컬럼 라벨 -> 위치 (item_name, itemName 모두 허용)
+     */
+    private void resolveColumns(ResultSet rs) throws SQLException {
+        idIndex = ABSENT;
+        itemNameIndex = ABSENT;
+        priceIndex = ABSENT;
+        quantityIndex = ABSENT;
+        versionIndex = ABSENT;
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int index = 1; index <= metaData.getColumnCount(); index++) {
+            String column = JdbcUtils.lookupColumnName(metaData, index).replace("_", "").toLowerCase();
+            switch (column) {
+                case "id":
+                    idIndex = index;
+                    break;
+                case "itemname":
+                    itemNameIndex = index;
+                    break;
+                case "price":
+                    priceIndex = index;
+                    break;
+                case "quantity":
+                    quantityIndex = index;
+                    break;
+                case "version":
+                    versionIndex = index;
+                    break;
+                default:
+            }
+        }
+        resolvedResultSet = rs;
+    }
+
+    private static Integer getInteger(ResultSet rs, int index) throws SQLException {
+        int value = rs.getInt(index);
+        return rs.wasNull() ? null : value;
+    }
+}
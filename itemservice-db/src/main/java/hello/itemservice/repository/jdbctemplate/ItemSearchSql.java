@@ -0,0 +1,135 @@
+package hello.itemservice.repository.jdbctemplate;
+
+import hello.itemservice.repository.ItemSearchCond;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.util.StringUtils;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * findAll 동적 쿼리를 미리 만들어 둔 SQL
+ *
+ * 조건(상품명, 최대 가격, afterId, limit) 유무 조합은 16가지 뿐이므로
+ * 호출마다 문자열을 이어 붙이지 않고 조합별로 한 번만 만들어서 재사용한다.
+ * - 이름 기반 (NamedParameterJdbcTemplate) : 같은 SQL 문자열 => 파싱 결과도 NamedParameterJdbcTemplate 캐시에서 재사용
+ * - 순서 기반 (JdbcTemplate) : 조합별 PreparedStatementCreatorFactory (파라미터 타입까지 미리 선언)
+ */
+final class ItemSearchSql {
+
+    private static final int ITEM_NAME = 1;
+    private static final int MAX_PRICE = 1 << 1;
+    private static final int AFTER_ID = 1 << 2;
+    private static final int LIMIT = 1 << 3;
+    private static final int SHAPES = 1 << 4;
+
+    private static final String[] NAMED = new String[SHAPES];
+    private static final String[] POSITIONAL = new String[SHAPES];
+    private static final PreparedStatementCreatorFactory[] POSITIONAL_FACTORIES = new PreparedStatementCreatorFactory[SHAPES];
+
+    static {
+        for (int shape = 0; shape < SHAPES; shape++) {
+            NAMED[shape] = build(shape, true);
+            POSITIONAL[shape] = build(shape, false);
+            POSITIONAL_FACTORIES[shape] = new PreparedStatementCreatorFactory(POSITIONAL[shape], parameters(shape));
+        }
+    }
+
+    private ItemSearchSql() {
+    }
+
+    /**
+     * :itemName, :maxPrice, :afterId, :limit 파라미터를 사용하는 SQL
+     */
+    static String named(ItemSearchCond cond) {
+        return NAMED[shapeOf(cond)];
+    }
+
+    static String positional(ItemSearchCond cond) {
+        return POSITIONAL[shapeOf(cond)];
+    }
+
+    /**
+     * 조건 값을 바인딩한 PreparedStatementCreator
+     */
+    static PreparedStatementCreator positionalCreator(ItemSearchCond cond) {
+        int shape = shapeOf(cond);
+        List<Object> args = new ArrayList<>(4);
+        if ((shape & ITEM_NAME) != 0) {
+            args.add(cond.getItemName());
+        }
+        if ((shape & MAX_PRICE) != 0) {
+            args.add(cond.getMaxPrice());
+        }
+        if ((shape & AFTER_ID) != 0) {
+            args.add(cond.getAfterId());
+        }
+        if ((shape & LIMIT) != 0) {
+            args.add(cond.getLimit());
+        }
+        return POSITIONAL_FACTORIES[shape].newPreparedStatementCreator(args);
+    }
+
+    private static int shapeOf(ItemSearchCond cond) {
+        int shape = 0;
+        if (StringUtils.hasText(cond.getItemName())) {
+            shape |= ITEM_NAME;
+        }
+        if (cond.getMaxPrice() != null) {
+            shape |= MAX_PRICE;
+        }
+        if (cond.getAfterId() != null) {
+            shape |= AFTER_ID;
+        }
+        if (cond.getLimit() != null) {
+            shape |= LIMIT;
+        }
+        return shape;
+    }
+
+    private static String build(int shape, boolean named) {
+        List<String> where = new ArrayList<>();
+        if ((shape & ITEM_NAME) != 0) {
+            where.add("item_name like concat('%'," + (named ? ":itemName" : "?") + ",'%')");
+        }
+        if ((shape & MAX_PRICE) != 0) {
+            where.add("price <= " + (named ? ":maxPrice" : "?"));
+        }
+        //키셋 페이징
+        if ((shape & AFTER_ID) != 0) {
+            where.add("id > " + (named ? ":afterId" : "?"));
+        }
+
+        StringBuilder sql = new StringBuilder("select id, item_name, price, quantity, version from item");
+        if (!where.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", where));
+        }
+        if ((shape & (AFTER_ID | LIMIT)) != 0) { //=> ItemSearchCond.isPaged()
+            sql.append(" order by id");
+        }
+        if ((shape & LIMIT) != 0) {
+            sql.append(" limit ").append(named ? ":limit" : "?");
+        }
+        return sql.toString();
+    }
+
+    private static List<SqlParameter> parameters(int shape) {
+        List<SqlParameter> parameters = new ArrayList<>();
+        if ((shape & ITEM_NAME) != 0) {
+            parameters.add(new SqlParameter(Types.VARCHAR));
+        }
+        if ((shape & MAX_PRICE) != 0) {
+            parameters.add(new SqlParameter(Types.INTEGER));
+        }
+        if ((shape & AFTER_ID) != 0) {
+            parameters.add(new SqlParameter(Types.BIGINT));
+        }
+        if ((shape & LIMIT) != 0) {
+            parameters.add(new SqlParameter(Types.INTEGER));
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,127 @@
+package hello.itemservice.repository.jdbctemplate;
+
+import hello.itemservice.repository.ItemUpdateDto;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * null 이 아닌 필드의 컬럼만 set 하는 update SQL (부분 수정)
+ *
+ * - item_name, price, quantity 중 어떤 컬럼을 쓰는지(shape)에 따라 8가지 SQL 을 미리 만들어 두고 재사용
+ *   => 같은 shape 는 항상 같은 SQL 문자열 (PreparedStatement 캐시, JDBC 배치에 그대로 사용)
+ * - 쓰지 않는 컬럼은 로우에서 바뀌지 않으므로 해당 컬럼 인덱스, 트리거(상품명 색인) 갱신도 없음
+ * - version=version+1 은 항상 포함, 바꿀 필드가 없어도 버전 확인과 증가는 함
+ * - version 파라미터가 null 이면 coalesce 로 현재 버전과 비교 => 버전 확인 생략
+ */
+final class ItemUpdateSql {
+
+    private static final int ITEM_NAME = 1;
+    private static final int PRICE = 1 << 1;
+    private static final int QUANTITY = 1 << 2;
+    private static final int SHAPES = 1 << 3;
+
+    private static final String[] NAMED = new String[SHAPES];
+    private static final String[] POSITIONAL = new String[SHAPES];
+
+    static {
+        for (int shape = 0; shape < SHAPES; shape++) {
+            NAMED[shape] = build(shape, true);
+            POSITIONAL[shape] = build(shape, false);
+        }
+    }
+
+    private ItemUpdateSql() {
+    }
+
+    /**
+     * :itemName, :price, :quantity, :id, :version (NamedParameterJdbcTemplate)
+     */
+    static String named(ItemUpdateDto updateParam) {
+        return NAMED[shapeOf(updateParam)];
+    }
+
+    static SqlParameterSource namedParameters(Long itemId, ItemUpdateDto updateParam) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (updateParam.getItemName() != null) {
+            params.addValue("itemName", updateParam.getItemName());
+        }
+        if (updateParam.getPrice() != null) {
+            params.addValue("price", updateParam.getPrice());
+        }
+        if (updateParam.getQuantity() != null) {
+            params.addValue("quantity", updateParam.getQuantity());
+        }
+        return params
+                .addValue("id", itemId)
+                .addValue("version", updateParam.getVersion(), Types.BIGINT); //=> null 이어도 타입 지정
+    }
+
+    static String positional(ItemUpdateDto updateParam) {
+        return POSITIONAL[shapeOf(updateParam)];
+    }
+
+    static void setPositionalParameters(PreparedStatement ps, Long itemId, ItemUpdateDto updateParam) throws SQLException {
+        int index = 1;
+        if (updateParam.getItemName() != null) {
+            ps.setString(index++, updateParam.getItemName());
+        }
+        if (updateParam.getPrice() != null) {
+            ps.setInt(index++, updateParam.getPrice());
+        }
+        if (updateParam.getQuantity() != null) {
+            ps.setInt(index++, updateParam.getQuantity());
+        }
+        ps.setLong(index++, itemId);
+        ps.setObject(index, updateParam.getVersion(), Types.BIGINT);
+    }
+
+    /**
+     * updateAll 용 : 같은 SQL 끼리 묶음 (SQL 하나당 배치 하나, 입력 순서 유지)
+     */
+    static Map<String, List<Map.Entry<Long, ItemUpdateDto>>> groupBySql(Map<Long, ItemUpdateDto> updateParams, boolean named) {
+        Map<String, List<Map.Entry<Long, ItemUpdateDto>>> groups = new LinkedHashMap<>();
+        for (Map.Entry<Long, ItemUpdateDto> entry : updateParams.entrySet()) {
+            String sql = named ? named(entry.getValue()) : positional(entry.getValue());
+            groups.computeIfAbsent(sql, key -> new ArrayList<>()).add(entry);
+        }
+        return groups;
+    }
+
+    private static int shapeOf(ItemUpdateDto updateParam) {
+        int shape = 0;
+        if (updateParam.getItemName() != null) {
+            shape |= ITEM_NAME;
+        }
+        if (updateParam.getPrice() != null) {
+            shape |= PRICE;
+        }
+        if (updateParam.getQuantity() != null) {
+            shape |= QUANTITY;
+        }
+        return shape;
+    }
+
+    private static String build(int shape, boolean named) {
+        StringBuilder sql = new StringBuilder("update item set ");
+        if ((shape & ITEM_NAME) != 0) {
+            sql.append("item_name=").append(named ? ":itemName" : "?").append(", ");
+        }
+        if ((shape & PRICE) != 0) {
+            sql.append("price=").append(named ? ":price" : "?").append(", ");
+        }
+        if ((shape & QUANTITY) != 0) {
+            sql.append("quantity=").append(named ? ":quantity" : "?").append(", ");
+        }
+        return sql.append("version=version+1 where id=").append(named ? ":id" : "?")
+                .append(" and version=coalesce(").append(named ? ":version" : "?").append(", version)")
+                .toString();
+    }
+}
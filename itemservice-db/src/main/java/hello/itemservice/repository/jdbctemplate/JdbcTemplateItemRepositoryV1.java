@@ -1,23 +1,29 @@
 package hello.itemservice.repository.jdbctemplate;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemNameIndex;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.UpsertResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
 import java.sql.PreparedStatement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * JdbcTemplate
@@ -26,15 +32,20 @@ import java.util.Optional;
 @Repository
 public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
 
+    private static final int FETCH_SIZE = 1000;
+
     private final JdbcTemplate template;
+    private final JdbcTemplate streamTemplate; // forEach 전용 (fetchSize 지정)
 
     public JdbcTemplateItemRepositoryV1(DataSource dataSource) {
         this.template = new JdbcTemplate(dataSource); // JdbcTemplate는 dataSource 필요
+        this.streamTemplate = new JdbcTemplate(dataSource);
+        this.streamTemplate.setFetchSize(FETCH_SIZE);
     }
 
     @Override
     public Item save(Item item) {
-        String sql = "insert into item (item_name, price, quantity) values ( ?, ?, ?)";
+        String sql = "insert into item (item_name, price, quantity) values ( ?, ?, ?)"; // version 은 기본값 0
         KeyHolder keyHolder = new GeneratedKeyHolder();
         template.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"}); // 자동 증가 키
@@ -46,17 +57,64 @@ public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
 
         long key = keyHolder.getKey().longValue(); // 데이터베이스에서 생성된 ID 조회
         item.setId(key);
+        item.setVersion(0L);
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        return ItemBatchInsert.insert(template, items);
+    }
+
+    /**
+     * null 이 아닌 필드만 수정 (SQL 은 ItemUpdateSql 참고)
+     */
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
-        String sql = "update item set item_name=?, price=?, quantity=? where id =?";
-        template.update(sql,
-                updateParam.getItemName(),
-                updateParam.getPrice(),
-                updateParam.getQuantity(),
-                itemId);
+        int updated = template.update(ItemUpdateSql.positional(updateParam),
+                ps -> ItemUpdateSql.setPositionalParameters(ps, itemId, updateParam));
+        if (updated == 0 && updateParam.getVersion() != null) {
+            throw versionConflict(itemId, updateParam);
+        }
+    }
+
+    /**
+     * 수정하는 컬럼 조합(SQL)별로 배치 실행
+     */
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        ItemUpdateSql.groupBySql(updateParams, false).forEach((sql, entries) -> {
+            int[][] updated = template.batchUpdate(sql, entries, ItemBatchInsert.BATCH_SIZE,
+                    (ps, entry) -> ItemUpdateSql.setPositionalParameters(ps, entry.getKey(), entry.getValue()));
+
+            // 배치 결과는 entries 순서대로 BATCH_SIZE 건씩
+            for (int i = 0; i < entries.size(); i++) {
+                Map.Entry<Long, ItemUpdateDto> entry = entries.get(i);
+                if (updated[i / ItemBatchInsert.BATCH_SIZE][i % ItemBatchInsert.BATCH_SIZE] == 0
+                        && entry.getValue().getVersion() != null) {
+                    throw versionConflict(entry.getKey(), entry.getValue());
+                }
+            }
+        });
+    }
+
+    private static OptimisticLockingFailureException versionConflict(Long itemId, ItemUpdateDto updateParam) {
+        return new OptimisticLockingFailureException(
+                "item was updated or deleted. id=" + itemId + ", version=" + updateParam.getVersion());
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int delta) {
+        String sql = "update item set quantity = quantity - ?, version = version + 1 where id = ? and quantity >= ?";
+        return template.update(sql, delta, itemId, delta) == 1;
+    }
+
+    /**
+     * merge 배치 (ItemBatchInsert.upsert, SQL 은 ItemUpsert 참고)
+     */
+    @Override
+    public UpsertResult upsertAll(List<Item> items) {
+        return ItemBatchInsert.upsert(template, items);
     }
 
     /**
@@ -65,7 +123,7 @@ public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
      */
     @Override
     public Optional<Item> findById(Long id) {
-        String sql = "select id, item_name, price, quantity from item where id = ?";
+        String sql = "select id, item_name, price, quantity, version from item where id = ?";
         try {
             Item item = template.queryForObject(sql, itemRowMapper(), id); // 결과 로우가 하나일 경우 사용
             return Optional.of(item);
@@ -74,31 +132,54 @@ public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
         }
     }
 
+    /**
+     * ID 목록은 배열 파라미터 하나로 전달 (id = any(?)) => ID 개수와 관계없이 같은 SQL
+     */
     @Override
-    public List<Item> findAll(ItemSearchCond cond) {
-        String itemName = cond.getItemName();
-        Integer maxPrice = cond.getMaxPrice();
-        String sql = "select id, item_name, price, quantity from item";
-        //동적 쿼리
-        if (StringUtils.hasText(itemName) || maxPrice != null) {
-            sql += " where";
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
-        boolean andFlag = false;
-        List<Object> param = new ArrayList<>();
-        if (StringUtils.hasText(itemName)) {
-            sql += " item_name like concat('%',?,'%')";
-            param.add(itemName);
-            andFlag = true;
-        }
-        if (maxPrice != null) {
-            if (andFlag) {
-                sql += " and";
-            }
-            sql += " price <= ?";
-            param.add(maxPrice);
+        String sql = "select id, item_name, price, quantity, version from item where id = any(?)";
+        return template.query(sql, itemRowMapper(), (Object) ids.toArray(new Long[0]));
+    }
+
+    @Override
+    public List<Item> findAll(ItemSearchCond cond) {
+        return template.query(findAllStatement(cond), itemRowMapper()); // 결과가 하나 이상일 때 사용
+    }
+
+    /**
+     * 3-gram 목록은 배열 파라미터 하나로 전달 (gram = any(?))
+     */
+    @Override
+    public List<Item> findAllByNameIndex(ItemSearchCond cond) {
+        if (!ItemNameIndex.supports(cond)) {
+            return findAll(cond);
         }
-        log.info("sql={}", sql);
-        return template.query(sql, itemRowMapper(), param.toArray()); // 결과가 하나 이상일 때 사용
+        String sql = ItemNameIndex.positional(cond);
+        log.debug("sql={}", sql);
+        return template.query(sql, itemRowMapper(), ItemNameIndex.positionalArguments(cond));
+    }
+
+    /**
+     * RowCallbackHandler 로 한 로우씩 처리 (결과 전체를 List 로 만들지 않음)
+     * - forward-only ResultSet, fetchSize 단위로 드라이버에서 가져옴
+     */
+    @Override
+    public void forEach(ItemSearchCond cond, Consumer<Item> action) {
+        RowMapper<Item> rowMapper = itemRowMapper();
+        streamTemplate.query(findAllStatement(cond), rs -> {
+            action.accept(rowMapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    /**
+     * 조건 조합별로 미리 만들어 둔 SQL + 파라미터 바인딩
+     */
+    private PreparedStatementCreator findAllStatement(ItemSearchCond cond) {
+        log.debug("sql={}", ItemSearchSql.positional(cond));
+        return ItemSearchSql.positionalCreator(cond);
     }
 
     /**
@@ -110,13 +191,6 @@ public class JdbcTemplateItemRepositoryV1 implements ItemRepository {
      * }
      */
     private RowMapper<Item> itemRowMapper() {
-        return (rs, rowNum) -> {
-            Item item = new Item();
-            item.setId(rs.getLong("id"));
-            item.setItemName(rs.getString("item_name"));
-            item.setPrice(rs.getInt("price"));
-            item.setQuantity(rs.getInt("quantity"));
-            return item;
-        };
+        return new ItemRowMapper(); //첫 로우에서 컬럼 위치를 찾고 이후에는 위치로 읽음
     }
 }
\ No newline at end of file
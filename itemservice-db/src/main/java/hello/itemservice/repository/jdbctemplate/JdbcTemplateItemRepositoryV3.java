@@ -1,25 +1,29 @@
 package hello.itemservice.repository.jdbctemplate;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemNameIndex;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.UpsertResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * SimpleJdbcInsert
@@ -27,15 +31,20 @@ import java.util.Optional;
 @Slf4j
 @Repository
 public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
+    private static final int FETCH_SIZE = 1000;
     private final NamedParameterJdbcTemplate template;
+    private final NamedParameterJdbcTemplate streamTemplate; // forEach 전용 (fetchSize 지정)
     private final SimpleJdbcInsert jdbcInsert;
 
     public JdbcTemplateItemRepositoryV3(DataSource dataSource) {
         this.template = new NamedParameterJdbcTemplate(dataSource);
+        JdbcTemplate streamJdbcTemplate = new JdbcTemplate(dataSource);
+        streamJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.streamTemplate = new NamedParameterJdbcTemplate(streamJdbcTemplate);
         this.jdbcInsert = new SimpleJdbcInsert(dataSource)
                 .withTableName("item")
-                .usingGeneratedKeyColumns("id");
-                // .usingColumns("item_name", "price", "quantity"); //생략 가능
+                .usingGeneratedKeyColumns("id")
+                .usingColumns("item_name", "price", "quantity"); //=> version 은 기본값 0 (생략하면 Item.version(null)도 insert)
     }
 
     @Override
@@ -43,26 +52,62 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
         SqlParameterSource param = new BeanPropertySqlParameterSource(item);
         Number key = jdbcInsert.executeAndReturnKey(param);
         item.setId(key.longValue());
+        item.setVersion(0L);
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        return ItemBatchInsert.insert(template.getJdbcOperations(), items);
+    }
+
+    /**
+     * null 이 아닌 필드만 수정 (SQL 은 ItemUpdateSql 참고)
+     */
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
-        String sql = "update item " +
-                "set item_name=:itemName, price=:price, quantity=:quantity " +
-                "where id=:id";
-
-        SqlParameterSource param = new MapSqlParameterSource()
-                .addValue("itemName", updateParam.getItemName())
-                .addValue("price", updateParam.getPrice())
-                .addValue("quantity", updateParam.getQuantity())
-                .addValue("id", itemId);
-        template.update(sql, param);
+        int updated = template.update(ItemUpdateSql.named(updateParam), ItemUpdateSql.namedParameters(itemId, updateParam));
+        if (updated == 0 && updateParam.getVersion() != null) {
+            throw versionConflict(itemId, updateParam);
+        }
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        ItemUpdateSql.groupBySql(updateParams, true).forEach((sql, entries) -> {
+            SqlParameterSource[] params = entries.stream()
+                    .map(entry -> ItemUpdateSql.namedParameters(entry.getKey(), entry.getValue()))
+                    .toArray(SqlParameterSource[]::new);
+            int[] updated = template.batchUpdate(sql, params);
+
+            for (int i = 0; i < entries.size(); i++) {
+                if (updated[i] == 0 && entries.get(i).getValue().getVersion() != null) {
+                    throw versionConflict(entries.get(i).getKey(), entries.get(i).getValue());
+                }
+            }
+        });
+    }
+
+    private static OptimisticLockingFailureException versionConflict(Long itemId, ItemUpdateDto updateParam) {
+        return new OptimisticLockingFailureException(
+                "item was updated or deleted. id=" + itemId + ", version=" + updateParam.getVersion());
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int delta) {
+        String sql = "update item set quantity = quantity - :delta, version = version + 1 " +
+                "where id = :id and quantity >= :delta";
+        return template.update(sql, Map.of("id", itemId, "delta", delta)) == 1;
+    }
+
+    @Override
+    public UpsertResult upsertAll(List<Item> items) {
+        return ItemBatchInsert.upsert(template.getJdbcOperations(), items);
     }
 
     @Override
     public Optional<Item> findById(Long id) {
-        String sql = "select id, item_name, price, quantity from item where id = :id ";
+        String sql = "select id, item_name, price, quantity, version from item where id = :id ";
         try {
             Map<String, Object> param = Map.of("id", id);
             Item item = template.queryForObject(sql, param, itemRowMapper());
@@ -72,32 +117,56 @@ public class JdbcTemplateItemRepositoryV3 implements ItemRepository {
         }
     }
 
+    /**
+     * :ids 컬렉션 파라미터 => in (?, ?, ...) 로 펼쳐짐
+     */
+    @Override
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "select id, item_name, price, quantity, version from item where id in (:ids)";
+        return template.query(sql, Map.of("ids", ids), itemRowMapper());
+    }
+
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
-        Integer maxPrice = cond.getMaxPrice();
-        String itemName = cond.getItemName();
         SqlParameterSource param = new BeanPropertySqlParameterSource(cond);
-        String sql = "select id, item_name, price, quantity from item";
-        //동적 쿼리
-        if (StringUtils.hasText(itemName) || maxPrice != null) {
-            sql += " where";
-        }
-        boolean andFlag = false;
-        if (StringUtils.hasText(itemName)) {
-            sql += " item_name like concat('%',:itemName,'%')";
-            andFlag = true;
-        }
-        if (maxPrice != null) {
-            if (andFlag) {
-                sql += " and";
-            }
-            sql += " price <= :maxPrice";
+        return template.query(findAllSql(cond), param, itemRowMapper());
+    }
+
+    /**
+     * 3-gram 목록은 :grams 컬렉션 파라미터 => in (?, ?, ...) 로 펼쳐짐
+     */
+    @Override
+    public List<Item> findAllByNameIndex(ItemSearchCond cond) {
+        if (!ItemNameIndex.supports(cond)) {
+            return findAll(cond);
         }
-        log.info("sql={}", sql);
-        return template.query(sql, param, itemRowMapper());
+        String sql = ItemNameIndex.named(cond);
+        log.debug("sql={}", sql);
+        return template.query(sql, ItemNameIndex.namedParameters(cond), itemRowMapper());
+    }
+
+    /**
+     * RowCallbackHandler 로 한 로우씩 처리 (결과 전체를 List 로 만들지 않음)
+     */
+    @Override
+    public void forEach(ItemSearchCond cond, Consumer<Item> action) {
+        SqlParameterSource param = new BeanPropertySqlParameterSource(cond);
+        RowMapper<Item> rowMapper = itemRowMapper();
+        streamTemplate.query(findAllSql(cond), param, rs -> {
+            action.accept(rowMapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    private String findAllSql(ItemSearchCond cond) {
+        String sql = ItemSearchSql.named(cond); //조건 조합별로 미리 만들어 둔 SQL
+        log.debug("sql={}", sql);
+        return sql;
     }
 
     private RowMapper<Item> itemRowMapper() {
-        return BeanPropertyRowMapper.newInstance(Item.class);
+        return new ItemRowMapper(); //컬럼 위치를 기억하므로 쿼리마다 새로 생성
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package hello.itemservice.repository.jpa;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hibernate 2차 캐시 region 별 hit ratio
+ * 빈을 만들 때 통계 수집을 켬 (hibernate.generate_statistics 는 켜지 않음 => 세션마다 남기는 Session Metrics 로그 없음)
+ *
+ * - item : Item 엔티티 (em.find, 쿼리 캐시 결과의 엔티티 조회)
+ * - default-query-results-region : 쿼리 캐시
+ */
+public class HibernateCacheStatistics {
+
+    private final Statistics statistics;
+
+    public HibernateCacheStatistics(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    /**
+     * region 이름 -> hit / (hit + miss), 조회가 없으면 0
+     */
+    public Map<String, Double> hitRatios() {
+        Map<String, Double> hitRatios = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            hitRatios.put(regionName, hitRatio(statistics.getCacheRegionStatistics(regionName)));
+        }
+        return hitRatios;
+    }
+
+    public CacheRegionStatistics region(String regionName) {
+        return statistics.getCacheRegionStatistics(regionName);
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        long total = region.getHitCount() + region.getMissCount();
+        return total == 0 ? 0 : (double) region.getHitCount() / total;
+    }
+}
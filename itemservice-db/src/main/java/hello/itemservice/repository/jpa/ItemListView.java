@@ -0,0 +1,15 @@
+package hello.itemservice.repository.jpa;
+
+/**
+ * 스프링 데이터 JPA 인터페이스 기반 프로젝션 (select 절의 별칭과 getter 이름이 같아야 함)
+ * 엔티티가 아닌 Tuple 을 감싼 프록시로 반환
+ */
+public interface ItemListView {
+    Long getId();
+
+    String getItemName();
+
+    Integer getPrice();
+
+    Integer getQuantity();
+}
@@ -1,24 +1,48 @@
 package hello.itemservice.repository.jpa;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
+import hello.itemservice.repository.ItemNameIndex;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.ItemUpsert;
+import hello.itemservice.repository.UpsertResult;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Repository
 @Transactional //=> JPA의 모든 데이터 변경은 트랜잭션 안에서 이루어짐
 public class JpaItemRepositoryV1 implements ItemRepository {
 
+    /**
+     * 배치 작업 시 BATCH_SIZE 마다 flush + clear
+     * => 영속성 컨텍스트에 엔티티가 계속 쌓이지 않도록 (메모리, 스냅샷 비교 비용)
+     */
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+    private static final String LIST_SELECT =
+            "select new hello.itemservice.repository.ItemListDto(i.id, i.itemName, i.price, i.quantity) from Item i";
+
     // JPA의 모든 동작은 EntityManager을 통해 이루어짐
     private final EntityManager em;
 
@@ -32,28 +56,177 @@ public class JpaItemRepositoryV1 implements ItemRepository {
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        for (int i = 0; i < items.size(); i++) {
+            em.persist(items.get(i));
+            if ((i + 1) % BATCH_SIZE == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        return items;
+    }
+
+    /**
+     * updateParam.version 은 읽은 엔티티의 버전과 비교
+     * 읽은 뒤 다른 트랜잭션이 먼저 수정하면 flush 시점의 update ... where version = ? 가 0건
+     * => 커밋할 때 ObjectOptimisticLockingFailureException
+     */
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         Item findItem = em.find(Item.class, itemId);
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        if (!updateParam.matchesVersion(findItem.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Item.class, itemId);
+        }
+        updateParam.applyTo(findItem);
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        List<Long> ids = new ArrayList<>(updateParams.keySet());
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            List<Item> findItems = em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (Item findItem : findItems) {
+                ItemUpdateDto updateParam = updateParams.get(findItem.getId());
+                if (!updateParam.matchesVersion(findItem.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Item.class, findItem.getId());
+                }
+                updateParam.applyTo(findItem);
+            }
+            em.flush();
+            em.clear();
+        }
+    }
+
+    /**
+     * JPQL 벌크 update => 엔티티를 읽지 않고 SQL 한 번으로 차감 (변경 감지를 거치지 않음)
+     * - 실행 전에 flush (FlushMode.AUTO)
+     * - 차감했으면 그 Item 만 영속성 컨텍스트에서 분리(detach) => 같은 트랜잭션에서 다시 읽으면 새로 조회
+     *   (clear 는 호출한 쪽 트랜잭션의 다른 엔티티까지 모두 분리하므로 사용하지 않음)
+     * - 2차 캐시에서도 그 Item 제거
+     */
+    @Override
+    public boolean decreaseQuantity(Long itemId, int delta) {
+        int updated = em.createQuery("update Item i set i.quantity = i.quantity - :delta, i.version = i.version + 1" +
+                        " where i.id = :id and i.quantity >= :delta")
+                .setParameter("delta", delta)
+                .setParameter("id", itemId)
+                .executeUpdate();
+        if (updated == 0) {
+            return false;
+        }
+        //getReference : 영속성 컨텍스트에 있으면 그 엔티티, 없으면 조회하지 않고 프록시
+        em.detach(em.getReference(Item.class, itemId));
+        em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+        return true;
+    }
+
+    /**
+     * 엔티티를 거치지 않는 네이티브 JDBC 배치 : Session.doReturningWork 로 트랜잭션의 커넥션을 받아 ItemUpsert 실행
+     * - 실행 전 flush => 영속성 컨텍스트에 쌓인 변경이 먼저 반영
+     * - 실행 후 clear, 2차 캐시의 Item 영역 비움 => 벌크 update 와 달리 하이버네이트가 무효화하지 않음
+     */
+    @Override
+    public UpsertResult upsertAll(List<Item> items) {
+        ItemUpsert.requireIds(items);
+        em.flush();
+        Session session = em.unwrap(Session.class);
+        UpsertResult result = UpsertResult.EMPTY;
+        for (int from = 0; from < items.size(); from += ItemUpsert.CHUNK_SIZE) {
+            List<Item> chunk = items.subList(from, Math.min(from + ItemUpsert.CHUNK_SIZE, items.size()));
+            result = result.plus(session.doReturningWork(con -> ItemUpsert.upsert(con, chunk)));
+        }
+        em.clear();
+        em.getEntityManagerFactory().getCache().evict(Item.class);
+        return result;
     }
 
     @Override
+    @Transactional(readOnly = true) //=> 조회 전용 : flush 생략(FlushMode.MANUAL), 스냅샷 생략, Connection.setReadOnly(true)
     public Optional<Item> findById(Long id) {
         Item item = em.find(Item.class, id);
         return Optional.ofNullable(item);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Item> findAll(ItemSearchCond cond) {
-        String jpql = "select i from Item i";
+        return findAllQuery(cond).getResultList();
+    }
+
+    /**
+     * item_trigram 은 엔티티가 아니므로 네이티브 쿼리로 조회 (결과는 Item 엔티티로 매핑)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<Item> findAllByNameIndex(ItemSearchCond cond) {
+        if (!ItemNameIndex.supports(cond)) {
+            return findAll(cond);
+        }
+        Query query = em.createNativeQuery(ItemNameIndex.named(cond), Item.class);
+        ItemNameIndex.namedParameters(cond).forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    /**
+     * getResultStream => 하이버네이트 ScrollableResults(forward-only) 로 한 건씩 조회
+     * 조회한 엔티티가 영속성 컨텍스트에 쌓이지 않도록 FETCH_SIZE 마다 clear
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(ItemSearchCond cond, Consumer<Item> action) {
+        try (Stream<Item> stream = findAllQuery(cond)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream()) {
+            int count = 0;
+            for (Iterator<Item> it = stream.iterator(); it.hasNext(); ) {
+                action.accept(it.next());
+                if (++count % FETCH_SIZE == 0) {
+                    em.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * 목록 화면용 DTO 를 select 절에서 바로 생성 (new 명령어, 엔티티를 만들지 않음)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemListDto> findListPage(ItemSearchCond cond) {
+        List<ItemListDto> rows = findAllQuery(LIST_SELECT, ItemListDto.class, CursorPage.probe(cond)).getResultList();
+        return CursorPage.of(rows, CursorPage.limitOf(cond), ItemListDto::getId);
+    }
+
+    private TypedQuery<Item> findAllQuery(ItemSearchCond cond) {
+        return findAllQuery("select i from Item i", Item.class, cond);
+    }
+
+    private <T> TypedQuery<T> findAllQuery(String select, Class<T> resultClass, ItemSearchCond cond) {
+        String jpql = select;
 
         Integer maxPrice = cond.getMaxPrice();
         String itemName = cond.getItemName();
+        Long afterId = cond.getAfterId();
 
-        if (StringUtils.hasText(itemName) || maxPrice != null) {
+        if (StringUtils.hasText(itemName) || maxPrice != null || afterId != null) {
             jpql += " where";
         }
 
@@ -68,17 +241,36 @@ public class JpaItemRepositoryV1 implements ItemRepository {
                 jpql += " and";
             }
             jpql += " i.price <= :maxPrice";
+            andFlag = true;
         }
 
-        log.info("jpql={}", jpql);
+        //키셋 페이징
+        if (afterId != null) {
+            if (andFlag) {
+                jpql += " and";
+            }
+            jpql += " i.id > :afterId";
+        }
 
-        TypedQuery<Item> query = em.createQuery(jpql, Item.class);
+        if (cond.isPaged()) {
+            jpql += " order by i.id";
+        }
+
+        log.debug("jpql={}", jpql);
+
+        TypedQuery<T> query = em.createQuery(jpql, resultClass);
         if (StringUtils.hasText(itemName)) {
             query.setParameter("itemName", itemName);
         }
         if (maxPrice != null) {
             query.setParameter("maxPrice", maxPrice);
         }
-        return query.getResultList();
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        if (cond.getLimit() != null) {
+            query.setMaxResults(cond.getLimit());
+        }
+        return query;
     }
 }
\ No newline at end of file
@@ -1,46 +1,151 @@
 package hello.itemservice.repository.jpa;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
+import hello.itemservice.repository.ItemNameIndex;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.ItemUpsert;
+import hello.itemservice.repository.UpsertResult;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @Transactional
 @RequiredArgsConstructor
 public class JpaItemRepositoryV2 implements ItemRepository {
 
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+
     private final SpringDataJpaItemRepository repository;
+    private final EntityManager em; //=> 배치 처리 시 영속성 컨텍스트 초기화(clear), 재고 차감 후 분리(detach) 용도
 
     @Override
     public Item save(Item item) {
         return repository.save(item);
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        for (int from = 0; from < items.size(); from += BATCH_SIZE) {
+            repository.saveAll(items.subList(from, Math.min(from + BATCH_SIZE, items.size())));
+            repository.flush();
+            em.clear();
+        }
+        return items;
+    }
+
+    /**
+     * 버전 확인은 JpaItemRepositoryV1.update 와 같음
+     */
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         Item findItem = repository.findById(itemId).orElseThrow();
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        if (!updateParam.matchesVersion(findItem.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Item.class, itemId);
+        }
+        updateParam.applyTo(findItem);
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        List<Long> ids = new ArrayList<>(updateParams.keySet());
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Item> findItems = repository.findAllById(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())));
+            for (Item findItem : findItems) {
+                ItemUpdateDto updateParam = updateParams.get(findItem.getId());
+                if (!updateParam.matchesVersion(findItem.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Item.class, findItem.getId());
+                }
+                updateParam.applyTo(findItem);
+            }
+            repository.flush();
+            em.clear();
+        }
+    }
+
+    /**
+     * 차감한 Item 만 분리 (JpaItemRepositoryV1.decreaseQuantity 와 같음)
+     */
+    @Override
+    public boolean decreaseQuantity(Long itemId, int delta) {
+        if (repository.decreaseQuantity(itemId, delta) == 0) {
+            return false;
+        }
+        em.detach(em.getReference(Item.class, itemId));
+        em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+        return true;
+    }
+
+    /**
+     * 네이티브 JDBC 배치 (JpaItemRepositoryV1.upsertAll 과 같음)
+     */
+    @Override
+    public UpsertResult upsertAll(List<Item> items) {
+        ItemUpsert.requireIds(items);
+        em.flush();
+        Session session = em.unwrap(Session.class);
+        UpsertResult result = UpsertResult.EMPTY;
+        for (int from = 0; from < items.size(); from += ItemUpsert.CHUNK_SIZE) {
+            List<Item> chunk = items.subList(from, Math.min(from + ItemUpsert.CHUNK_SIZE, items.size()));
+            result = result.plus(session.doReturningWork(con -> ItemUpsert.upsert(con, chunk)));
+        }
+        em.clear();
+        em.getEntityManagerFactory().getCache().evict(Item.class);
+        return result;
     }
 
     @Override
+    @Transactional(readOnly = true) //=> 조회 전용 : flush 생략(FlushMode.MANUAL), 스냅샷 생략, Connection.setReadOnly(true)
     public Optional<Item> findById(Long id) {
         return repository.findById(id);
     }
 
+    /**
+     * findAllById => select ... where id in (...) 한 번
+     */
     @Override
+    @Transactional(readOnly = true)
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return repository.findAllById(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Item> findAll(ItemSearchCond cond) {
         String itemName = cond.getItemName();
         Integer maxPrice = cond.getMaxPrice();
+        if (cond.isPaged()) {
+            //키셋 페이징 (ID는 1부터 생성)
+            Long afterId = cond.getAfterId() != null ? cond.getAfterId() : 0L;
+            Pageable pageable = cond.getLimit() != null ? PageRequest.of(0, cond.getLimit()) : Pageable.unpaged();
+            return repository.findItemsAfter(StringUtils.hasText(itemName) ? "%" + itemName + "%" : null,
+                    maxPrice, afterId, pageable);
+        }
         if (StringUtils.hasText(itemName) && maxPrice != null) {
             //return repository.findByItemNameLikeAndPriceLessThanEqual("%" + itemName +"%", maxPrice);
             return repository.findItems("%" + itemName + "%", maxPrice);
@@ -52,4 +157,56 @@ public class JpaItemRepositoryV2 implements ItemRepository {
             return repository.findAll();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> findAllByNameIndex(ItemSearchCond cond) {
+        if (!ItemNameIndex.supports(cond)) {
+            return findAll(cond);
+        }
+        Set<String> grams = ItemNameIndex.grams(cond.getItemName());
+        Long afterId = cond.getAfterId() != null ? cond.getAfterId() : 0L;
+        Pageable pageable = cond.getLimit() != null ? PageRequest.of(0, cond.getLimit()) : Pageable.unpaged();
+        return repository.findItemsByNameIndex(grams, grams.size(), "%" + cond.getItemName() + "%",
+                cond.getMaxPrice(), afterId, pageable);
+    }
+
+    /**
+     * 인터페이스 기반 프로젝션(ItemListView)으로 조회 => 엔티티를 만들지 않음
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemListDto> findListPage(ItemSearchCond cond) {
+        String itemName = cond.getItemName();
+        Long afterId = cond.getAfterId() != null ? cond.getAfterId() : 0L;
+        List<ItemListDto> rows = repository.findListItemsAfter(
+                        StringUtils.hasText(itemName) ? "%" + itemName + "%" : null, cond.getMaxPrice(), afterId,
+                        PageRequest.of(0, CursorPage.limitOf(cond) + 1))
+                .stream()
+                .map(view -> new ItemListDto(view.getId(), view.getItemName(), view.getPrice(), view.getQuantity()))
+                .collect(Collectors.toList());
+        return CursorPage.of(rows, CursorPage.limitOf(cond), ItemListDto::getId);
+    }
+
+    /**
+     * 조회한 엔티티가 영속성 컨텍스트에 쌓이지 않도록 FETCH_SIZE 마다 clear
+     * (limit 은 스트림에서 제한)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(ItemSearchCond cond, Consumer<Item> action) {
+        String itemName = cond.getItemName();
+        Long afterId = cond.getAfterId() != null ? cond.getAfterId() : 0L;
+        long limit = cond.getLimit() != null ? cond.getLimit() : Long.MAX_VALUE;
+        try (Stream<Item> stream = repository.streamItems(
+                StringUtils.hasText(itemName) ? "%" + itemName + "%" : null, cond.getMaxPrice(), afterId)) {
+            int count = 0;
+            for (Iterator<Item> it = stream.limit(limit).iterator(); it.hasNext(); ) {
+                action.accept(it.next());
+                if (++count % FETCH_SIZE == 0) {
+                    em.clear();
+                }
+            }
+        }
+    }
+}
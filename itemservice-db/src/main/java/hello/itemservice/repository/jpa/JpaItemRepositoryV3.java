@@ -1,26 +1,49 @@
 package hello.itemservice.repository.jpa;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import hello.itemservice.domain.Item;
 import hello.itemservice.domain.QItem;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
+import hello.itemservice.repository.ItemNameIndex;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.ItemUpsert;
+import hello.itemservice.repository.UpsertResult;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static hello.itemservice.domain.QItem.*;
 
 @Repository
 @Transactional
 public class JpaItemRepositoryV3 implements ItemRepository {
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+    private static final Expression<ItemListDto> LIST_PROJECTION =
+            Projections.constructor(ItemListDto.class, item.id, item.itemName, item.price, item.quantity);
+
     private final EntityManager em;
     /**
      * Querydsl 사용을 위해 JPAQueryFactory 필요
@@ -39,20 +62,109 @@ public class JpaItemRepositoryV3 implements ItemRepository {
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        for (int i = 0; i < items.size(); i++) {
+            em.persist(items.get(i));
+            if ((i + 1) % BATCH_SIZE == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        return items;
+    }
+
+    /**
+     * 버전 확인은 JpaItemRepositoryV1.update 와 같음
+     */
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         Item findItem = findById(itemId).orElseThrow();
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        if (!updateParam.matchesVersion(findItem.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Item.class, itemId);
+        }
+        updateParam.applyTo(findItem);
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        List<Long> ids = new ArrayList<>(updateParams.keySet());
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            List<Item> findItems = query
+                    .selectFrom(item)
+                    .where(item.id.in(chunk))
+                    .fetch();
+            for (Item findItem : findItems) {
+                ItemUpdateDto updateParam = updateParams.get(findItem.getId());
+                if (!updateParam.matchesVersion(findItem.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Item.class, findItem.getId());
+                }
+                updateParam.applyTo(findItem);
+            }
+            em.flush();
+            em.clear();
+        }
+    }
+
+    /**
+     * Querydsl update 절 => JPQL 벌크 update (JpaItemRepositoryV1.decreaseQuantity 와 같음)
+     */
+    @Override
+    public boolean decreaseQuantity(Long itemId, int delta) {
+        long updated = query
+                .update(item)
+                .set(item.quantity, item.quantity.subtract(delta))
+                .set(item.version, item.version.add(1))
+                .where(item.id.eq(itemId), item.quantity.goe(delta))
+                .execute();
+        if (updated == 0) {
+            return false;
+        }
+        em.detach(em.getReference(Item.class, itemId));
+        em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+        return true;
     }
 
+    /**
+     * JpaItemRepositoryV1.upsertAll 과 같음 (Querydsl 은 merge 를 지원하지 않음)
+     */
     @Override
+    public UpsertResult upsertAll(List<Item> items) {
+        ItemUpsert.requireIds(items);
+        em.flush();
+        Session session = em.unwrap(Session.class);
+        UpsertResult result = UpsertResult.EMPTY;
+        for (int from = 0; from < items.size(); from += ItemUpsert.CHUNK_SIZE) {
+            List<Item> chunk = items.subList(from, Math.min(from + ItemUpsert.CHUNK_SIZE, items.size()));
+            result = result.plus(session.doReturningWork(con -> ItemUpsert.upsert(con, chunk)));
+        }
+        em.clear();
+        em.getEntityManagerFactory().getCache().evict(Item.class);
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true) //=> 조회 전용 : flush 생략(FlushMode.MANUAL), 스냅샷 생략, Connection.setReadOnly(true)
     public Optional<Item> findById(Long id) {
         Item item = em.find(Item.class, id);
         return Optional.ofNullable(item);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return query
+                .selectFrom(item)
+                .where(item.id.in(ids))
+                .fetch();
+    }
+
+    @Transactional(readOnly = true)
     public List<Item> findAllOld(ItemSearchCond itemSearch) {
 
         String itemName = itemSearch.getItemName();
@@ -77,16 +189,76 @@ public class JpaItemRepositoryV3 implements ItemRepository {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Item> findAll(ItemSearchCond cond) {
+        return findAllQuery(cond).fetch();
+    }
+
+    /**
+     * item_trigram 은 엔티티가 아니므로 네이티브 쿼리로 조회 (결과는 Item 엔티티로 매핑)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<Item> findAllByNameIndex(ItemSearchCond cond) {
+        if (!ItemNameIndex.supports(cond)) {
+            return findAll(cond);
+        }
+        Query query = em.createNativeQuery(ItemNameIndex.named(cond), Item.class);
+        ItemNameIndex.namedParameters(cond).forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    /**
+     * JPAQuery.stream() => getResultStream (하이버네이트 ScrollableResults)
+     * 조회한 엔티티가 영속성 컨텍스트에 쌓이지 않도록 FETCH_SIZE 마다 clear
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(ItemSearchCond cond, Consumer<Item> action) {
+        try (Stream<Item> stream = findAllQuery(cond)
+                .setHint(QueryHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .stream()) {
+            int count = 0;
+            for (Iterator<Item> it = stream.iterator(); it.hasNext(); ) {
+                action.accept(it.next());
+                if (++count % FETCH_SIZE == 0) {
+                    em.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * 목록 화면용 DTO 를 select 절에서 바로 생성 (엔티티, 스냅샷을 만들지 않음)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemListDto> findListPage(ItemSearchCond cond) {
+        List<ItemListDto> rows = findAllQuery(LIST_PROJECTION, CursorPage.probe(cond)).fetch();
+        return CursorPage.of(rows, CursorPage.limitOf(cond), ItemListDto::getId);
+    }
 
+    private JPAQuery<Item> findAllQuery(ItemSearchCond cond) {
+        return findAllQuery(item, cond);
+    }
+
+    private <T> JPAQuery<T> findAllQuery(Expression<T> select, ItemSearchCond cond) {
         String itemName = cond.getItemName();
         Integer maxPrice = cond.getMaxPrice();
 
-        return query
-                .select(item)
+        JPAQuery<T> findQuery = query
+                .select(select)
                 .from(item)
-                .where(likeItemName(itemName), maxPrice(maxPrice))
-                .fetch();
+                .where(likeItemName(itemName), maxPrice(maxPrice), afterId(cond.getAfterId()));
+        //키셋 페이징
+        if (cond.isPaged()) {
+            findQuery.orderBy(item.id.asc());
+        }
+        if (cond.getLimit() != null) {
+            findQuery.limit(cond.getLimit());
+        }
+        return findQuery;
     }
 
     private BooleanExpression likeItemName(String itemName) {
@@ -102,4 +274,11 @@ public class JpaItemRepositoryV3 implements ItemRepository {
         }
         return null;
     }
+
+    private BooleanExpression afterId(Long afterId) {
+        if (afterId != null) {
+            return item.id.gt(afterId);
+        }
+        return null;
+    }
 }
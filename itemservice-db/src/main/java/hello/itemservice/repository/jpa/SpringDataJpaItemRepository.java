@@ -1,11 +1,17 @@
 package hello.itemservice.repository.jpa;
 
 import hello.itemservice.domain.Item;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface SpringDataJpaItemRepository extends JpaRepository<Item, Long> {
 
@@ -19,4 +25,50 @@ public interface SpringDataJpaItemRepository extends JpaRepository<Item, Long> {
     // 쿼리 직접 실행
     @Query("select i from Item i where i.itemName like :itemName and i.price <=:price")
     List<Item> findItems(@Param("itemName") String itemName, @Param("price") Integer price);
-}
\ No newline at end of file
+
+    // 재고 차감 (벌크 update) - 실행 전 flush (차감한 Item 분리는 JpaItemRepositoryV2 에서)
+    @Modifying(flushAutomatically = true)
+    @Query("update Item i set i.quantity = i.quantity - :delta, i.version = i.version + 1" +
+            " where i.id = :id and i.quantity >= :delta")
+    int decreaseQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+    // 키셋 페이징 (조건이 없으면 null 전달, 건수 제한은 Pageable)
+    @Query("select i from Item i" +
+            " where (:itemName is null or i.itemName like :itemName)" +
+            " and (:price is null or i.price <= :price)" +
+            " and i.id > :afterId" +
+            " order by i.id")
+    List<Item> findItemsAfter(@Param("itemName") String itemName, @Param("price") Integer price,
+                              @Param("afterId") Long afterId, Pageable pageable);
+
+    // 상품명 3-gram 색인으로 후보 조회 (ItemNameIndex) - item_trigram 은 엔티티가 아니므로 네이티브 쿼리
+    @Query(nativeQuery = true, value = "select i.id, i.item_name, i.price, i.quantity, i.version from item i" +
+            " where i.id in (select t.item_id from item_trigram t where t.gram in (:grams)" +
+            " group by t.item_id having count(*) = :gramCount)" +
+            " and i.item_name like :itemName" +
+            " and (:price is null or i.price <= :price)" +
+            " and i.id > :afterId" +
+            " order by i.id")
+    List<Item> findItemsByNameIndex(@Param("grams") Collection<String> grams, @Param("gramCount") int gramCount,
+                                    @Param("itemName") String itemName, @Param("price") Integer price,
+                                    @Param("afterId") Long afterId, Pageable pageable);
+
+    // 목록 화면용 프로젝션 (엔티티를 만들지 않음)
+    @Query("select i.id as id, i.itemName as itemName, i.price as price, i.quantity as quantity from Item i" +
+            " where (:itemName is null or i.itemName like :itemName)" +
+            " and (:price is null or i.price <= :price)" +
+            " and i.id > :afterId" +
+            " order by i.id")
+    List<ItemListView> findListItemsAfter(@Param("itemName") String itemName, @Param("price") Integer price,
+                                         @Param("afterId") Long afterId, Pageable pageable);
+
+    // Stream 반환 => 트랜잭션 안에서 사용 후 close 필요
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i from Item i" +
+            " where (:itemName is null or i.itemName like :itemName)" +
+            " and (:price is null or i.price <= :price)" +
+            " and i.id > :afterId" +
+            " order by i.id")
+    Stream<Item> streamItems(@Param("itemName") String itemName, @Param("price") Integer price,
+                             @Param("afterId") Long afterId);
+}
@@ -0,0 +1,434 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.ItemUpsert;
+import hello.itemservice.repository.UpsertResult;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ObjectUtils;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 보조 인덱스를 사용하는 메모리 저장소 (전체 스캔 대신 인덱스로 후보를 좁힘)
+ *
+ * - 가격 인덱스 : TreeMap(price -> ids) => maxPrice 범위 조회 (headMap)
+ * - 상품명 인덱스 : 3-gram 역색인(trigram -> ids) => 검색어의 3-gram 목록을 교집합해서 후보 조회
+ *   (검색어가 3글자 미만이면 검색어를 포함하는 3-gram, 3글자 미만 상품명에서 후보 조회)
+ * - 후보는 실제 조건(contains, price <=)으로 한 번 더 확인하므로 결과는 MemoryItemRepository 와 동일 (id 순)
+ * - 인덱스는 save, update 시 함께 갱신 (쓰기 락), 조회는 읽기 락을 공유
+ */
+@Repository
+public class IndexedMemoryItemRepository implements ItemRepository {
+
+    private static final int GRAM = 3;
+
+    private final NavigableMap<Long, Item> store = new TreeMap<>();
+    private final NavigableMap<Integer, IdList> priceIndex = new TreeMap<>();
+    private final Map<String, IdList> nameIndex = new HashMap<>();
+    private final IdList shortNameIds = new IdList(); //=> GRAM 보다 짧은 상품명
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long sequence = 0L;
+
+    @Override
+    public Item save(Item item) {
+        write(() -> {
+            item.setId(++sequence);
+            item.setVersion(0L);
+            Item stored = item.copy();
+            store.put(stored.getId(), stored);
+            indexName(stored.getId(), stored.getItemName());
+            indexPrice(stored.getId(), stored.getPrice());
+        });
+        return item;
+    }
+
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        items.forEach(this::save);
+        return items;
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        write(() -> {
+            Item findItem = store.get(itemId);
+            if (findItem == null) {
+                throw new NoSuchElementException("item not found. id=" + itemId);
+            }
+            if (!updateParam.matchesVersion(findItem.getVersion())) {
+                throw new OptimisticLockingFailureException(
+                        "item was updated. id=" + itemId + ", version=" + updateParam.getVersion());
+            }
+            Item updateItem = findItem.copy(); //=> null 인 필드는 이전 값 유지
+            updateParam.applyTo(updateItem);
+            updateItem.setVersion(findItem.getVersion() + 1);
+            store.put(itemId, updateItem);
+            reindex(itemId, findItem, updateItem);
+        });
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        updateParams.forEach(this::update);
+    }
+
+    /**
+     * 수량은 인덱스에 없으므로 저장된 Item 만 교체
+     */
+    @Override
+    public boolean decreaseQuantity(Long itemId, int delta) {
+        boolean[] decreased = {false};
+        write(() -> {
+            Item findItem = store.get(itemId);
+            if (findItem == null || findItem.getQuantity() < delta) {
+                return;
+            }
+            Item updateItem = findItem.copy();
+            updateItem.setQuantity(findItem.getQuantity() - delta);
+            updateItem.setVersion(findItem.getVersion() + 1);
+            store.put(itemId, updateItem);
+            decreased[0] = true;
+        });
+        return decreased[0];
+    }
+
+    /**
+     * 한 건씩 쓰기 락 안에서 저장 또는 교체 (인덱스 갱신은 save, update 와 같음)
+     */
+    @Override
+    public UpsertResult upsertAll(List<Item> items) {
+        ItemUpsert.requireIds(items);
+        long[] inserted = {0};
+        for (Item item : items) {
+            write(() -> {
+                Long itemId = item.getId();
+                Item findItem = store.get(itemId);
+                Item stored = item.copy();
+                stored.setVersion(findItem == null ? 0L : findItem.getVersion() + 1);
+                store.put(itemId, stored);
+                if (findItem == null) {
+                    indexName(itemId, stored.getItemName());
+                    indexPrice(itemId, stored.getPrice());
+                    inserted[0]++;
+                } else {
+                    reindex(itemId, findItem, stored);
+                }
+                sequence = Math.max(sequence, itemId); //=> 이후 save 가 같은 ID 를 만들지 않도록
+            });
+        }
+        return new UpsertResult(inserted[0], items.size() - inserted[0]);
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        return read(() -> Optional.ofNullable(store.get(id)).map(Item::copy));
+    }
+
+    @Override
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        return read(() -> {
+            List<Item> result = new ArrayList<>(ids.size());
+            for (Long id : new LinkedHashSet<>(ids)) {
+                Item item = store.get(id);
+                if (item != null) {
+                    result.add(item.copy());
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<Item> findAll(ItemSearchCond cond) {
+        String itemName = cond.getItemName();
+        Integer maxPrice = cond.getMaxPrice();
+        long afterId = cond.getAfterId() != null ? cond.getAfterId() : Long.MIN_VALUE;
+        long limit = cond.getLimit() != null ? cond.getLimit() : Long.MAX_VALUE;
+
+        return read(() -> {
+            List<Item> result = new ArrayList<>();
+
+            //조건이 없으면 id 순으로 저장소를 그대로 조회
+            if (ObjectUtils.isEmpty(itemName) && maxPrice == null) {
+                for (Item item : store.tailMap(afterId, false).values()) {
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                    result.add(item.copy());
+                }
+                return result;
+            }
+
+            //상품명 조건이 있으면 상품명 인덱스(보통 더 선택적), 없으면 가격 인덱스로 후보 조회
+            long[] candidates = ObjectUtils.isEmpty(itemName) ? priceCandidates(maxPrice) : nameCandidates(itemName);
+            for (long id : candidates) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (id <= afterId) {
+                    continue;
+                }
+                Item item = store.get(id);
+                if (matches(item, itemName, maxPrice)) {
+                    result.add(item.copy());
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public void forEach(ItemSearchCond cond, Consumer<Item> action) {
+        findAll(cond).forEach(action);
+    }
+
+    public void clearStore() {
+        write(() -> {
+            store.clear();
+            priceIndex.clear();
+            nameIndex.clear();
+            shortNameIds.clear();
+        });
+    }
+
+    private boolean matches(Item item, String itemName, Integer maxPrice) {
+        if (!ObjectUtils.isEmpty(itemName) && !item.getItemName().contains(itemName)) {
+            return false;
+        }
+        return maxPrice == null || item.getPrice() <= maxPrice;
+    }
+
+    /**
+     * id 오름차순 후보
+     */
+    private long[] nameCandidates(String itemName) {
+        if (itemName.length() < GRAM) {
+            IdList union = new IdList();
+            union.addAll(shortNameIds);
+            nameIndex.forEach((gram, ids) -> {
+                if (gram.contains(itemName)) {
+                    union.addAll(ids);
+                }
+            });
+            return union.toSortedDistinctArray();
+        }
+
+        //작은 목록부터 교집합
+        List<IdList> postings = new ArrayList<>();
+        for (String gram : grams(itemName)) {
+            IdList ids = nameIndex.get(gram);
+            if (ids == null) {
+                return new long[0];
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(IdList::size));
+        long[] result = postings.get(0).toArray();
+        for (int i = 1; i < postings.size() && result.length > 0; i++) {
+            result = postings.get(i).retain(result);
+        }
+        return result;
+    }
+
+    private long[] priceCandidates(Integer maxPrice) {
+        IdList union = new IdList();
+        for (IdList ids : priceIndex.headMap(maxPrice, true).values()) {
+            union.addAll(ids);
+        }
+        return union.toSortedDistinctArray();
+    }
+
+    /**
+     * 변경된 값만 인덱스 갱신
+     */
+    private void reindex(long id, Item before, Item after) {
+        if (!Objects.equals(before.getItemName(), after.getItemName())) {
+            unindexName(id, before.getItemName());
+            indexName(id, after.getItemName());
+        }
+        if (!Objects.equals(before.getPrice(), after.getPrice())) {
+            unindexPrice(id, before.getPrice());
+            indexPrice(id, after.getPrice());
+        }
+    }
+
+    private void indexName(long id, String itemName) {
+        if (itemName == null) {
+            return;
+        }
+        if (itemName.length() < GRAM) {
+            shortNameIds.add(id);
+            return;
+        }
+        for (String gram : grams(itemName)) {
+            nameIndex.computeIfAbsent(gram, key -> new IdList()).add(id);
+        }
+    }
+
+    private void unindexName(long id, String itemName) {
+        if (itemName == null) {
+            return;
+        }
+        if (itemName.length() < GRAM) {
+            shortNameIds.remove(id);
+            return;
+        }
+        for (String gram : grams(itemName)) {
+            IdList ids = nameIndex.get(gram);
+            ids.remove(id);
+            if (ids.size() == 0) {
+                nameIndex.remove(gram);
+            }
+        }
+    }
+
+    private void indexPrice(long id, Integer price) {
+        if (price != null) {
+            priceIndex.computeIfAbsent(price, key -> new IdList()).add(id);
+        }
+    }
+
+    private void unindexPrice(long id, Integer price) {
+        if (price == null) {
+            return;
+        }
+        IdList ids = priceIndex.get(price);
+        ids.remove(id);
+        if (ids.size() == 0) {
+            priceIndex.remove(price);
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private <T> T read(Supplier<T> action) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * id 오름차순 long 배열 (Set<Long> 보다 메모리 사용량이 훨씬 적음)
+     * ID는 증가하면서 발급되므로 add 는 대부분 맨 뒤에 추가
+     */
+    static class IdList {
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity(size + 1);
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity(size + 1);
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        /**
+         * 정렬 여부와 관계없이 뒤에 이어 붙임 (합집합용, toSortedDistinctArray 로 정리)
+         */
+        void addAll(IdList other) {
+            ensureCapacity(size + other.size);
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+        }
+
+        void clear() {
+            ids = new long[4];
+            size = 0;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        long[] toSortedDistinctArray() {
+            long[] sorted = toArray();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+
+        /**
+         * sortedIds 중 이 목록에도 있는 id 만 남김 (교집합)
+         */
+        long[] retain(long[] sortedIds) {
+            long[] result = new long[Math.min(sortedIds.length, size)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < sortedIds.length && j < size) {
+                if (sortedIds[i] == ids[j]) {
+                    result[count++] = sortedIds[i];
+                    i++;
+                    j++;
+                } else if (sortedIds[i] < ids[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(capacity, ids.length * 2));
+            }
+        }
+    }
+}
@@ -4,43 +4,139 @@ import hello.itemservice.domain.Item;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.ItemUpsert;
+import hello.itemservice.repository.UpsertResult;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.ObjectUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * 동시 요청에서도 안전한 메모리 저장소 (부하 테스트용 로컬 저장소)
+ *
+ * - ConcurrentHashMap + AtomicLong => ID 중복, 데이터 깨짐 방지
+ * - 저장소의 Item 은 외부와 공유하지 않도록 복사본을 저장/반환
+ * - update 는 computeIfPresent 로 새 Item 으로 원자적으로 교체 (버전 확인, 증가도 같은 연산 안에서)
+ * - findAll 은 쓰기를 잠시 막고 스냅샷을 복사한 뒤 필터링
+ *   => 쓰기 작업은 snapshotLock 의 읽기 락을 공유하므로 쓰기끼리는 서로 막지 않음
+ */
 @Repository
 public class MemoryItemRepository implements ItemRepository {
 
-    private static final Map<Long, Item> store = new HashMap<>(); //static
-    private static long sequence = 0L; //static
+    private final Map<Long, Item> store = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
 
     @Override
     public Item save(Item item) {
-        item.setId(++sequence);
-        store.put(item.getId(), item);
+        item.setId(sequence.incrementAndGet());
+        item.setVersion(0L);
+        Item stored = item.copy();
+        write(() -> store.put(stored.getId(), stored));
         return item;
     }
 
+    @Override
+    public List<Item> saveAll(List<Item> items) {
+        items.forEach(this::save);
+        return items;
+    }
+
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
-        Item findItem = findById(itemId).orElseThrow();
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        write(() -> {
+            Item updated = store.computeIfPresent(itemId, (id, findItem) -> {
+                if (!updateParam.matchesVersion(findItem.getVersion())) { //=> 예외가 나면 저장소는 그대로
+                    throw new OptimisticLockingFailureException(
+                            "item was updated. id=" + id + ", version=" + updateParam.getVersion());
+                }
+                Item updateItem = findItem.copy(); //=> null 인 필드는 이전 값 유지
+                updateParam.applyTo(updateItem);
+                updateItem.setVersion(findItem.getVersion() + 1);
+                return updateItem;
+            });
+            if (updated == null) {
+                throw new NoSuchElementException("item not found. id=" + itemId);
+            }
+        });
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        updateParams.forEach(this::update);
+    }
+
+    /**
+     * computeIfPresent 안에서 확인, 차감 => 같은 상품의 동시 차감도 하나씩 반영
+     */
+    @Override
+    public boolean decreaseQuantity(Long itemId, int delta) {
+        boolean[] decreased = {false};
+        write(() -> store.computeIfPresent(itemId, (id, findItem) -> {
+            if (findItem.getQuantity() < delta) {
+                return findItem;
+            }
+            Item updateItem = findItem.copy();
+            updateItem.setQuantity(findItem.getQuantity() - delta);
+            updateItem.setVersion(findItem.getVersion() + 1);
+            decreased[0] = true;
+            return updateItem;
+        }));
+        return decreased[0];
+    }
+
+    /**
+     * 상품마다 compute 로 교체(version + 1) 또는 저장
+     * 피드의 ID 가 sequence 보다 크면 sequence 도 올림 => 이후 save 가 같은 ID 를 만들지 않음
+     */
+    @Override
+    public UpsertResult upsertAll(List<Item> items) {
+        ItemUpsert.requireIds(items);
+        long inserted = 0;
+        for (Item item : items) {
+            boolean[] created = {false};
+            write(() -> store.compute(item.getId(), (id, findItem) -> {
+                Item stored = item.copy();
+                stored.setVersion(findItem == null ? 0L : findItem.getVersion() + 1);
+                created[0] = findItem == null;
+                return stored;
+            }));
+            sequence.accumulateAndGet(item.getId(), Math::max);
+            if (created[0]) {
+                inserted++;
+            }
+        }
+        return new UpsertResult(inserted, items.size() - inserted);
     }
 
     @Override
     public Optional<Item> findById(Long id) {
-        return Optional.ofNullable(store.get(id));
+        return Optional.ofNullable(store.get(id)).map(Item::copy);
+    }
+
+    @Override
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        return ids.stream()
+                .distinct()
+                .map(store::get)
+                .filter(Objects::nonNull)
+                .map(Item::copy)
+                .collect(Collectors.toList());
     }
 
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
         String itemName = cond.getItemName();
         Integer maxPrice = cond.getMaxPrice();
-        return store.values().stream()
+        return snapshot().stream()
                 .filter(item -> {
                     if (ObjectUtils.isEmpty(itemName)) {
                         return true;
@@ -52,11 +148,42 @@ public class MemoryItemRepository implements ItemRepository {
                     }
                     return item.getPrice() <= maxPrice;
                 })
+                .filter(item -> cond.getAfterId() == null || item.getId() > cond.getAfterId())
+                .sorted(Comparator.comparing(Item::getId))
+                .limit(cond.getLimit() != null ? cond.getLimit() : Long.MAX_VALUE)
+                .map(Item::copy)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void forEach(ItemSearchCond cond, Consumer<Item> action) {
+        findAll(cond).forEach(action);
+    }
+
     public void clearStore() {
         store.clear();
     }
 
+    /**
+     * 스냅샷 시점에는 진행 중인 쓰기가 없으므로 일관된 상태를 복사
+     */
+    private List<Item> snapshot() {
+        Lock lock = snapshotLock.writeLock();
+        lock.lock();
+        try {
+            return new ArrayList<>(store.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        Lock lock = snapshotLock.readLock();
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
 }
@@ -5,7 +5,9 @@ import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,9 +22,47 @@ public interface ItemMapper {
 
     void save(Item item);
 
-    void update(@Param("id") Long id, @Param("updateParam") ItemUpdateDto updateParam);
+    /**
+     * multi-row insert : insert into item (...) values (...), (...), ...
+     */
+    void saveAll(@Param("items") List<Item> items);
+
+    /**
+     * null 이 아닌 필드만 수정, 수정된 로우 수 반환 (updateParam.version 이 맞지 않으면 0)
+     */
+    int update(@Param("id") Long id, @Param("updateParam") ItemUpdateDto updateParam);
+
+    /**
+     * 차감된 로우 수 반환 (재고 부족, 상품 없음 => 0)
+     */
+    int decreaseQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * 있으면 수정(version + 1), 없으면 item.id 로 저장 - BATCH 세션에서 사용
+     */
+    void upsert(Item item);
+
+    /**
+     * ids 중 이미 있는 상품 수 - ids 가 비어 있으면 안 됨
+     */
+    long countByIds(@Param("ids") Collection<Long> ids);
 
     Optional<Item> findById(Long id);
 
+    /**
+     * where id in (...) - ids 가 비어 있으면 안 됨
+     */
+    List<Item> findAllByIds(@Param("ids") Collection<Long> ids);
+
     List<Item> findAll(ItemSearchCond itemSearch);
+
+    /**
+     * grams : 검색어의 3-gram (ItemNameIndex.grams)
+     */
+    List<Item> findAllByNameIndex(@Param("cond") ItemSearchCond cond, @Param("grams") Collection<String> grams);
+
+    /**
+     * Cursor 는 SqlSession 이 열려 있는 동안(트랜잭션 안에서)만 사용 가능
+     */
+    Cursor<Item> findAllCursor(ItemSearchCond itemSearch);
 }
@@ -1,35 +1,143 @@
 package hello.itemservice.repository.mybatis;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemNameIndex;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.ItemUpsert;
+import hello.itemservice.repository.UpsertResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * MyBatisItemRepository는 단순히 ItemMapper에 기능을 위임
+ *
+ * saveAll 은 INSERT_CHUNK_SIZE 건씩 multi-row insert (한 번의 round trip 으로 여러 로우 저장)
+ * updateAll, upsertAll 은 ExecutorType.BATCH 세션의 Mapper 사용
+ * - SqlSessionFactory 는 SpringManagedTransaction 을 사용하므로 진행 중인 스프링 트랜잭션의 커넥션에 참여
+ * - flushStatements 시점에 모아둔 SQL을 JDBC 배치로 실행 (useGeneratedKeys 도 배치 단위로 처리)
  */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class MyBatisItemRepository implements ItemRepository {
+    private static final int BATCH_SIZE = 1000;
+    private static final int INSERT_CHUNK_SIZE = 500; //=> 로우당 파라미터 3개, 한 문장에 1,500개
+
     private final ItemMapper itemMapper;
+    private final SqlSessionFactory sqlSessionFactory;
 
     @Override
     public Item save(Item item) {
         log.info("itemMapper class={}", itemMapper.getClass());
         itemMapper.save(item);
+        item.setVersion(0L); // version 은 기본값 0
         return item;
     }
 
+    @Override
+    @Transactional
+    public List<Item> saveAll(List<Item> items) {
+        for (int from = 0; from < items.size(); from += INSERT_CHUNK_SIZE) {
+            itemMapper.saveAll(items.subList(from, Math.min(from + INSERT_CHUNK_SIZE, items.size())));
+        }
+        items.forEach(item -> item.setVersion(0L));
+        return items;
+    }
+
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
-        itemMapper.update(itemId, updateParam);
+        int updated = itemMapper.update(itemId, updateParam);
+        if (updated == 0 && updateParam.getVersion() != null) {
+            throw versionConflict(itemId, updateParam);
+        }
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ItemMapper batchMapper = session.getMapper(ItemMapper.class);
+            int count = 0;
+            for (Map.Entry<Long, ItemUpdateDto> entry : updateParams.entrySet()) {
+                batchMapper.update(entry.getKey(), entry.getValue());
+                if (++count % BATCH_SIZE == 0) {
+                    checkVersions(session.flushStatements());
+                }
+            }
+            checkVersions(session.flushStatements());
+            session.commit();
+        }
+    }
+
+    /**
+     * BATCH 세션의 update 는 수정된 로우 수 대신 BatchResult 로 확인 (파라미터와 같은 순서)
+     */
+    private static void checkVersions(List<BatchResult> results) {
+        for (BatchResult result : results) {
+            int[] updateCounts = result.getUpdateCounts();
+            for (int i = 0; i < updateCounts.length; i++) {
+                Map<?, ?> param = (Map<?, ?>) result.getParameterObjects().get(i);
+                ItemUpdateDto updateParam = (ItemUpdateDto) param.get("updateParam");
+                if (updateCounts[i] == 0 && updateParam.getVersion() != null) {
+                    throw versionConflict((Long) param.get("id"), updateParam);
+                }
+            }
+        }
+    }
+
+    private static OptimisticLockingFailureException versionConflict(Long itemId, ItemUpdateDto updateParam) {
+        return new OptimisticLockingFailureException(
+                "item was updated or deleted. id=" + itemId + ", version=" + updateParam.getVersion());
+    }
+
+    /**
+     * 청크마다 countByIds 로 이미 있는 건수를 센 뒤 merge 를 배치에 쌓음
+     * (BATCH 세션의 select 는 쌓아 둔 배치를 먼저 실행 => 이전 청크의 merge 가 반영된 뒤 건수를 셈)
+     */
+    @Override
+    public UpsertResult upsertAll(List<Item> items) {
+        ItemUpsert.requireIds(items);
+        UpsertResult result = UpsertResult.EMPTY;
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ItemMapper batchMapper = session.getMapper(ItemMapper.class);
+            for (int from = 0; from < items.size(); from += ItemUpsert.CHUNK_SIZE) {
+                List<Item> chunk = items.subList(from, Math.min(from + ItemUpsert.CHUNK_SIZE, items.size()));
+                Set<Long> ids = new LinkedHashSet<>();
+                chunk.forEach(item -> ids.add(item.getId()));
+
+                long inserted = ids.size() - batchMapper.countByIds(ids);
+                chunk.forEach(batchMapper::upsert);
+                result = result.plus(new UpsertResult(inserted, chunk.size() - inserted));
+            }
+            session.flushStatements();
+            session.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean decreaseQuantity(Long itemId, int delta) {
+        return itemMapper.decreaseQuantity(itemId, delta) == 1;
     }
 
     @Override
@@ -37,8 +145,34 @@ public class MyBatisItemRepository implements ItemRepository {
         return itemMapper.findById(id);
     }
 
+    @Override
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return itemMapper.findAllByIds(ids);
+    }
+
     @Override
     public List<Item> findAll(ItemSearchCond cond) {
         return itemMapper.findAll(cond);
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<Item> findAllByNameIndex(ItemSearchCond cond) {
+        if (!ItemNameIndex.supports(cond)) {
+            return findAll(cond);
+        }
+        return itemMapper.findAllByNameIndex(cond, ItemNameIndex.grams(cond.getItemName()));
+    }
+
+    @Override
+    @Transactional(readOnly = true) //=> Cursor 를 읽는 동안 SqlSession 유지
+    public void forEach(ItemSearchCond cond, Consumer<Item> action) {
+        try (Cursor<Item> cursor = itemMapper.findAllCursor(cond)) {
+            cursor.forEach(action);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package hello.itemservice.repository.v2;
 
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
 import hello.itemservice.repository.ItemSearchCond;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
@@ -14,6 +20,9 @@ import static hello.itemservice.domain.QItem.item;
 
 @Repository
 public class ItemQueryRepositoryV2 {
+    private static final Expression<ItemListDto> LIST_PROJECTION =
+            Projections.constructor(ItemListDto.class, item.id, item.itemName, item.price, item.quantity);
+
     private final JPAQueryFactory query;
 
     public ItemQueryRepositoryV2(EntityManager em) {
@@ -21,13 +30,40 @@ public class ItemQueryRepositoryV2 {
     }
 
     public List<Item> findAll(ItemSearchCond cond) {
-        return query.select(item)
+        return findAllQuery(item, cond).fetch();
+    }
+
+    public CursorPage<Item> findPage(ItemSearchCond cond) {
+        return CursorPage.of(findAll(CursorPage.probe(cond)), CursorPage.limitOf(cond), Item::getId);
+    }
+
+    /**
+     * 목록 화면용 : Projections.constructor 로 DTO 를 바로 생성 (엔티티, 스냅샷을 만들지 않음)
+     */
+    public CursorPage<ItemListDto> findListPage(ItemSearchCond cond) {
+        List<ItemListDto> rows = findAllQuery(LIST_PROJECTION, CursorPage.probe(cond)).fetch();
+        return CursorPage.of(rows, CursorPage.limitOf(cond), ItemListDto::getId);
+    }
+
+    private <T> JPAQuery<T> findAllQuery(Expression<T> select, ItemSearchCond cond) {
+        JPAQuery<T> findQuery = query.select(select)
                 .from(item)
                 .where(
                         maxPrice(cond.getMaxPrice()),
-                        likeItemName(cond.getItemName())
-                )
-                .fetch();
+                        likeItemName(cond.getItemName()),
+                        afterId(cond.getAfterId())
+                );
+        //키셋 페이징
+        if (cond.isPaged()) {
+            findQuery.orderBy(item.id.asc());
+        }
+        if (cond.getLimit() != null) {
+            findQuery.limit(cond.getLimit());
+        }
+        //쿼리 캐시 : 같은 조건이면 결과를 캐시에서 꺼냄 (엔티티 조회는 ID 목록만 저장하고 엔티티는 2차 캐시에서 조회)
+        //(item 테이블이 변경되면 그 이전에 캐시된 결과는 사용하지 않음)
+        findQuery.setHint(QueryHints.CACHEABLE, true);
+        return findQuery;
     }
 
     private BooleanExpression likeItemName(String itemName) {
@@ -43,4 +79,11 @@ public class ItemQueryRepositoryV2 {
         }
         return null;
     }
+
+    private BooleanExpression afterId(Long afterId) {
+        if (afterId != null) {
+            return item.id.gt(afterId);
+        }
+        return null;
+    }
 }
@@ -0,0 +1,190 @@
+package hello.itemservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import lombok.Value;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * findById, 검색 결과를 캐시하는 ItemService 데코레이터 (어떤 *Config 에서도 기존 ItemService 를 감싸서 사용)
+ *
+ * - Caffeine(W-TinyLFU) : 최대 maximumSize 건, 초과 시 덜 사용되는 항목부터 제거
+ * - save 는 저장된 값으로 캐시 갱신, update, updateAll 은 캐시 무효화
+ *   (조회 중인 키를 무효화하면 조회가 끝난 뒤 제거되므로 이전 값이 남지 않음)
+ * - ttl 이 지나면 만료 => ItemService 를 거치지 않는 쓰기(ItemStockReservation 의 재고 반영, upsertAll 등 ItemRepository 직접 호출)도 ttl 안에 반영
+ * - 캐시에는 복사본을 저장하고 복사본을 반환 => 호출한 쪽에서 수정해도 캐시가 바뀌지 않음
+ * - stats() : hit/miss/eviction 통계 (캐시 크기 산정용)
+ *
+ * 검색 결과 캐시 (findItems, findItemPage, findItemListPage)
+ * - 키 : 정규화한 검색 조건 (상품명 trim, 빈 문자열은 null) + generation
+ * - save, update 마다 generation 증가 => 이전 generation 으로 만든 결과는 다시 조회되지 않음
+ *   (변경 전에 시작한 조회가 늦게 캐시에 넣더라도 이전 키로 들어감)
+ * - searchTtl 이 지나면 만료
+ */
+public class CachingItemService implements ItemService {
+
+    private static final long DEFAULT_SEARCH_MAXIMUM_SIZE = 1_000;
+    private static final Duration DEFAULT_TTL = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_SEARCH_TTL = Duration.ofSeconds(10);
+
+    private final ItemService target;
+    private final Cache<Long, Item> itemCache;
+    private final Cache<SearchKey, List<Item>> searchCache;
+    private final Cache<SearchKey, CursorPage<Item>> pageCache;
+    private final Cache<SearchKey, CursorPage<ItemListDto>> listPageCache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CachingItemService(ItemService target, long maximumSize) {
+        this(target, maximumSize, DEFAULT_TTL, DEFAULT_SEARCH_MAXIMUM_SIZE, DEFAULT_SEARCH_TTL);
+    }
+
+    public CachingItemService(ItemService target, long maximumSize, Duration ttl,
+                              long searchMaximumSize, Duration searchTtl) {
+        this.target = target;
+        this.itemCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.searchCache = Caffeine.newBuilder()
+                .maximumSize(searchMaximumSize)
+                .expireAfterWrite(searchTtl)
+                .recordStats()
+                .build();
+        this.pageCache = Caffeine.newBuilder()
+                .maximumSize(searchMaximumSize)
+                .expireAfterWrite(searchTtl)
+                .recordStats()
+                .build();
+        this.listPageCache = Caffeine.newBuilder()
+                .maximumSize(searchMaximumSize)
+                .expireAfterWrite(searchTtl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Item save(Item item) {
+        Item savedItem = target.save(item);
+        itemCache.put(savedItem.getId(), savedItem.copy());
+        invalidateSearch();
+        return savedItem;
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        try {
+            target.update(itemId, updateParam);
+        } finally {
+            //버전 충돌로 실패했으면 캐시의 값이 이전 버전 => 실패해도 무효화 (재시도할 때 최신 값 조회)
+            itemCache.invalidate(itemId);
+            invalidateSearch();
+        }
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        try {
+            target.updateAll(updateParams);
+        } finally {
+            itemCache.invalidateAll(updateParams.keySet());
+            invalidateSearch();
+        }
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        //없는 ID는 캐시하지 않음 (null 반환)
+        Item item = itemCache.get(id, key -> target.findById(key).map(Item::copy).orElse(null));
+        return Optional.ofNullable(item).map(Item::copy);
+    }
+
+    @Override
+    public List<Item> findItems(ItemSearchCond cond) {
+        ItemSearchCond normalized = normalize(cond);
+        List<Item> items = searchCache.get(SearchKey.of(generation.get(), normalized),
+                key -> copyOf(target.findItems(normalized)));
+        return copyOf(items);
+    }
+
+    @Override
+    public CursorPage<Item> findItemPage(ItemSearchCond cond) {
+        ItemSearchCond normalized = normalize(cond);
+        CursorPage<Item> page = pageCache.get(SearchKey.of(generation.get(), normalized), key -> {
+            CursorPage<Item> findPage = target.findItemPage(normalized);
+            return new CursorPage<>(copyOf(findPage.getContent()), findPage.getNextCursor());
+        });
+        return new CursorPage<>(copyOf(page.getContent()), page.getNextCursor());
+    }
+
+    /**
+     * ItemListDto 는 불변이므로 복사하지 않고 변경할 수 없는 목록으로 공유
+     */
+    @Override
+    public CursorPage<ItemListDto> findItemListPage(ItemSearchCond cond) {
+        ItemSearchCond normalized = normalize(cond);
+        return listPageCache.get(SearchKey.of(generation.get(), normalized), key -> {
+            CursorPage<ItemListDto> findPage = target.findItemListPage(normalized);
+            return new CursorPage<>(List.copyOf(findPage.getContent()), findPage.getNextCursor());
+        });
+    }
+
+    public CacheStats stats() {
+        return itemCache.stats();
+    }
+
+    public CacheStats searchStats() {
+        return searchCache.stats().plus(pageCache.stats()).plus(listPageCache.stats());
+    }
+
+    public long estimatedSize() {
+        return itemCache.estimatedSize();
+    }
+
+    private void invalidateSearch() {
+        generation.incrementAndGet();
+        searchCache.invalidateAll();
+        pageCache.invalidateAll();
+        listPageCache.invalidateAll();
+    }
+
+    /**
+     * 상품명 앞뒤 공백 제거, 빈 문자열은 null (같은 검색이 같은 키가 되도록)
+     */
+    private static ItemSearchCond normalize(ItemSearchCond cond) {
+        String itemName = StringUtils.hasText(cond.getItemName()) ? cond.getItemName().trim() : null;
+        return new ItemSearchCond(itemName, cond.getMaxPrice(), cond.getAfterId(), cond.getLimit());
+    }
+
+    private static List<Item> copyOf(List<Item> items) {
+        return items.stream()
+                .map(Item::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Value
+    private static class SearchKey {
+        long generation;
+        String itemName;
+        Integer maxPrice;
+        Long afterId;
+        Integer limit;
+
+        static SearchKey of(long generation, ItemSearchCond cond) {
+            return new SearchKey(generation, cond.getItemName(), cond.getMaxPrice(), cond.getAfterId(), cond.getLimit());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 같은 id 의 동시 findById 를 한 번의 조회로 합치는 ItemService 데코레이터 (single-flight)
+ *
+ * - 먼저 온 요청만 target.findById 를 호출하고, 조회 중에 들어온 같은 id 요청은 그 결과를 기다려서 함께 사용
+ * - graceWindow : 조회가 끝난 뒤에도 graceWindow 동안 결과를 공유 (0 이면 조회 중인 요청끼리만 합침)
+ *   => 짧은 시간에 몰리는 요청도 DB 조회 한 번으로 처리, 대신 최대 graceWindow 만큼 이전 값이 보일 수 있음
+ * - update 한 id 는 공유 중인 결과를 버림 => 이후 요청은 새로 조회
+ * - 조회 중 예외(Error 포함)는 기다리던 요청에 그대로 전달하고, 결과로 공유하지 않음
+ * - 호출한 쪽마다 복사본 반환 (Item 을 요청끼리 공유하지 않음)
+ * - lookupCount() : target 조회 수, collapsedCount() : 조회 없이 다른 요청의 결과를 받은 수
+ *
+ * CachingItemService 의 캐시 로딩은 이미 같은 키를 한 번만 조회하므로 캐시가 없는 구성에서 사용
+ */
+public class CoalescingItemService implements ItemService {
+
+    private final ItemService target;
+    private final Duration graceWindow;
+    private final Executor expiry;
+    private final ConcurrentMap<Long, CompletableFuture<Optional<Item>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder lookupCount = new LongAdder();
+    private final LongAdder collapsedCount = new LongAdder();
+
+    public CoalescingItemService(ItemService target) {
+        this(target, Duration.ZERO);
+    }
+
+    public CoalescingItemService(ItemService target, Duration graceWindow) {
+        this.target = target;
+        this.graceWindow = graceWindow;
+        this.expiry = CompletableFuture.delayedExecutor(graceWindow.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Item save(Item item) {
+        return target.save(item);
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        try {
+            target.update(itemId, updateParam);
+        } finally {
+            inFlight.remove(itemId); //=> 버전 충돌로 실패해도 공유 중인 (이전 버전) 결과는 버림
+        }
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        try {
+            target.updateAll(updateParams);
+        } finally {
+            updateParams.keySet().forEach(inFlight::remove);
+        }
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        CompletableFuture<Optional<Item>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<Item>> existing = inFlight.putIfAbsent(id, flight);
+        if (existing != null) {
+            collapsedCount.increment();
+            return join(existing).map(Item::copy);
+        }
+
+        lookupCount.increment();
+        Optional<Item> item;
+        try {
+            item = target.findById(id);
+        } catch (Throwable e) { //=> Error 도 전달하지 않으면 기다리던 요청이 끝나지 않고, 이 id 는 계속 조회 중으로 남음
+            inFlight.remove(id, flight); //=> 이후 요청은 다시 조회
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        flight.complete(item);
+        release(id, flight);
+        return item.map(Item::copy);
+    }
+
+    @Override
+    public List<Item> findItems(ItemSearchCond cond) {
+        return target.findItems(cond);
+    }
+
+    @Override
+    public CursorPage<Item> findItemPage(ItemSearchCond cond) {
+        return target.findItemPage(cond);
+    }
+
+    @Override
+    public CursorPage<ItemListDto> findItemListPage(ItemSearchCond cond) {
+        return target.findItemListPage(cond);
+    }
+
+    public long lookupCount() {
+        return lookupCount.sum();
+    }
+
+    public long collapsedCount() {
+        return collapsedCount.sum();
+    }
+
+    /**
+     * 그 사이 update 로 새 조회가 등록되었을 수 있으므로 자신이 등록한 경우만 제거
+     */
+    private void release(Long id, CompletableFuture<Optional<Item>> flight) {
+        if (graceWindow.isZero()) {
+            inFlight.remove(id, flight);
+        } else {
+            expiry.execute(() -> inFlight.remove(id, flight));
+        }
+    }
+
+    private static Optional<Item> join(CompletableFuture<Optional<Item>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * findById 를 모아서 findAllByIds 한 번으로 조회하는 로더 (DataLoader 방식)
+ *
+ * - load(id) 는 바로 future 를 반환하고, window 동안 들어온 요청을 모아서 where id in (...) 한 번으로 조회
+ *   => N 번의 findById 가 round trip 한 번 (window 만큼 응답 지연)
+ * - maxBatchSize 건이 모이면 window 를 기다리지 않고 바로 조회 (예약해 둔 window 작업은 취소)
+ * - 같은 ID 요청은 한 번만 조회, 요청마다 복사본 전달
+ * - 조회는 dispatcher 스레드 하나에서 실행 (배치끼리는 순서대로)
+ * - 조회 중 예외(Error 포함)는 해당 배치의 모든 요청에 전달
+ * - close() : 남은 요청을 조회한 뒤 종료
+ */
+@Slf4j
+public class ItemBatchLoader implements AutoCloseable {
+
+    private final ItemRepository itemRepository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledThreadPoolExecutor dispatcher;
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+
+    private Batch pending = new Batch(); //=> this 로 동기화
+
+    public ItemBatchLoader(ItemRepository itemRepository, Duration window, int maxBatchSize) {
+        this.itemRepository = itemRepository;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.dispatcher = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "item-batch-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //취소한 window 작업은 큐에서 바로 제거, 종료 후에는 남은 window 작업을 기다리지 않음 (close 가 직접 조회)
+        dispatcher.setRemoveOnCancelPolicy(true);
+        dispatcher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    public CompletableFuture<Optional<Item>> load(Long id) {
+        Request request = new Request(id, new CompletableFuture<>());
+        loadCount.increment();
+        synchronized (this) {
+            Batch batch = pending;
+            batch.requests.add(request);
+            if (batch.requests.size() == 1) {
+                batch.timer = dispatcher.schedule(() -> dispatch(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            if (batch.requests.size() >= maxBatchSize) {
+                pending = new Batch();
+                dispatcher.execute(() -> dispatch(batch));
+            }
+        }
+        return request.future;
+    }
+
+    /**
+     * load(id) 결과를 기다림 (findById 대신 사용)
+     */
+    public Optional<Item> findById(Long id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public long loadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * findAllByIds 호출 수
+     */
+    public long batchCount() {
+        return batchCount.sum();
+    }
+
+    @Override
+    public void close() {
+        Batch batch;
+        synchronized (this) {
+            if (dispatcher.isShutdown()) {
+                return;
+            }
+            batch = pending;
+            pending = new Batch();
+        }
+        dispatcher.execute(() -> dispatch(batch));
+        dispatcher.shutdown();
+        try {
+            if (!dispatcher.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("item batch loader did not terminate");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * window 가 지나거나 maxBatchSize 가 차서 호출 => 먼저 호출된 쪽만 조회
+     */
+    private void dispatch(Batch batch) {
+        synchronized (this) {
+            if (batch.dispatched) {
+                return;
+            }
+            batch.dispatched = true;
+            if (pending == batch) {
+                pending = new Batch();
+            }
+            if (batch.timer != null) {
+                batch.timer.cancel(false);
+            }
+        }
+        if (batch.requests.isEmpty()) {
+            return;
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Request request : batch.requests) {
+            ids.add(request.id);
+        }
+        Map<Long, Item> items = new HashMap<>();
+        try {
+            batchCount.increment();
+            for (Item item : itemRepository.findAllByIds(ids)) {
+                items.put(item.getId(), item);
+            }
+        } catch (Throwable e) { //=> Error 도 전달하지 않으면 기다리는 요청이 끝나지 않음
+            batch.requests.forEach(request -> request.future.completeExceptionally(e));
+            return;
+        }
+        for (Request request : batch.requests) {
+            request.future.complete(Optional.ofNullable(items.get(request.id)).map(Item::copy));
+        }
+    }
+
+    private static class Batch {
+        private final List<Request> requests = new ArrayList<>();
+        private boolean dispatched;
+        private ScheduledFuture<?> timer;
+    }
+
+    @Value
+    private static class Request {
+        Long id;
+        CompletableFuture<Optional<Item>> future;
+    }
+}
@@ -1,10 +1,13 @@
 package hello.itemservice.service;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ItemService {
@@ -13,7 +16,19 @@ public interface ItemService {
 
     void update(Long itemId, ItemUpdateDto updateParam);
 
+    /**
+     * 여러 건을 한 번에 수정 (key: itemId), 버전 확인은 update 와 같음
+     */
+    void updateAll(Map<Long, ItemUpdateDto> updateParams);
+
     Optional<Item> findById(Long id);
 
     List<Item> findItems(ItemSearchCond itemSearch);
+
+    CursorPage<Item> findItemPage(ItemSearchCond itemSearch);
+
+    /**
+     * 목록 화면용 (엔티티 대신 DTO 조회)
+     */
+    CursorPage<ItemListDto> findItemListPage(ItemSearchCond itemSearch);
 }
@@ -1,6 +1,8 @@
 package hello.itemservice.service;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
@@ -8,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -26,6 +29,11 @@ public class ItemServiceV1 implements ItemService {
         itemRepository.update(itemId, updateParam);
     }
 
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        itemRepository.updateAll(updateParams);
+    }
+
     @Override
     public Optional<Item> findById(Long id) {
         return itemRepository.findById(id);
@@ -35,4 +43,14 @@ public class ItemServiceV1 implements ItemService {
     public List<Item> findItems(ItemSearchCond cond) {
         return itemRepository.findAll(cond);
     }
+
+    @Override
+    public CursorPage<Item> findItemPage(ItemSearchCond cond) {
+        return itemRepository.findPage(cond);
+    }
+
+    @Override
+    public CursorPage<ItemListDto> findItemListPage(ItemSearchCond cond) {
+        return itemRepository.findListPage(cond);
+    }
 }
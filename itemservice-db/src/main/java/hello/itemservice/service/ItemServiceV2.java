@@ -1,15 +1,19 @@
 package hello.itemservice.service;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
 import hello.itemservice.repository.v2.ItemRepositoryV2;
 import hello.itemservice.repository.v2.ItemQueryRepositoryV2;
 import lombok.RequiredArgsConstructor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -24,21 +28,55 @@ public class ItemServiceV2 implements ItemService {
         return itemRepositoryV2.save(item);
     }
 
+    /**
+     * 폼에서 받은 version 이 현재 버전과 다르면 바로 실패
+     * 같더라도 커밋 전에 다른 트랜잭션이 수정하면 @Version 으로 커밋 시점에 실패
+     */
     @Override
     public void update(Long itemId, ItemUpdateDto updateParam) {
         Item findItem = findById(itemId).orElseThrow();
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        if (!updateParam.matchesVersion(findItem.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Item.class, itemId);
+        }
+        updateParam.applyTo(findItem);
     }
 
+    /**
+     * 한 트랜잭션에서 in (...) 으로 조회해서 수정 => 커밋 때 update 를 JDBC 배치로 실행 (hibernate.jdbc.batch_size)
+     * 없는 ID 는 건너뜀
+     */
     @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        for (Item findItem : itemRepositoryV2.findAllById(updateParams.keySet())) {
+            ItemUpdateDto updateParam = updateParams.get(findItem.getId());
+            if (!updateParam.matchesVersion(findItem.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Item.class, findItem.getId());
+            }
+            updateParam.applyTo(findItem);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true) //=> 조회 전용 : flush 생략(FlushMode.MANUAL), 스냅샷 생략, Connection.setReadOnly(true)
     public Optional<Item> findById(Long id) {
         return itemRepositoryV2.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Item> findItems(ItemSearchCond cond) {
         return itemQueryRepositoryV2.findAll(cond);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Item> findItemPage(ItemSearchCond cond) {
+        return itemQueryRepositoryV2.findPage(cond);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ItemListDto> findItemListPage(ItemSearchCond cond) {
+        return itemQueryRepositoryV2.findListPage(cond);
+    }
 }
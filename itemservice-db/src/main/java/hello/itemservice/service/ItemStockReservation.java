@@ -0,0 +1,269 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 인기 상품 재고 차감(주문)을 메모리에서 처리하고, 차감한 수량을 모아서 주기적으로 DB 에 반영
+ *
+ * - 상품마다 재고를 shards 개의 카운터로 나눠서 보관 => 스레드마다 다른 카운터를 차감하므로 한 로우(카운터)에 몰리지 않음
+ * - 카운터는 0 아래로 내려가지 않음 (CAS 로 남은 수량 확인 후 차감) => 카운터 합계 이상 팔지 않음
+ *   카운터는 캐시 라인 간격으로 떨어뜨려 둠 (LongAdder 처럼 false sharing 방지)
+ *   자기 카운터가 부족하면 다른 카운터에서 차감, 그래도 없으면 상품 단위로 락을 잡고 카운터를 모아서 다시 나눔
+ * - flushInterval 마다 상품별로 차감한 수량을 합쳐서 decreaseQuantity 한 번으로 반영 (flush 한 번에 상품당 update 한 번)
+ * - 처음 차감할 때 DB 의 quantity 로 카운터를 채움 => 재시작하면 DB 값에서 다시 시작
+ *   (DB 조회는 맵 밖에서, 먼저 등록된 카운터가 있으면 그것을 사용)
+ *
+ * 주의
+ * - 반영 전 차감은 메모리에만 있음 => 비정상 종료하면 최대 flushInterval 동안의 차감이 DB 에 남지 않음 (close() 는 반영 후 종료)
+ * - 여기서 관리하는 상품의 quantity 를 다른 경로로 줄이면 반영(decreaseQuantity)이 거절될 수 있음
+ *   => 차감한 수량은 같은 카운터로 되돌리고, DB 수량을 다시 읽어서 남은 수량 = DB 수량 - 반영 전 차감 으로 맞춤
+ *   반영 전 차감이 DB 수량보다 많으면 넘친 만큼은 반영하지 못함 (이미 승인한 예약 => 로그로 남김)
+ */
+@Slf4j
+public class ItemStockReservation implements AutoCloseable {
+
+    private final ItemRepository itemRepository;
+    private final int shards;
+    private final ScheduledExecutorService flusher;
+    private final Map<Long, ItemStock> stocks = new ConcurrentHashMap<>();
+
+    public ItemStockReservation(ItemRepository itemRepository, int shards, Duration flushInterval) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be positive. shards=" + shards);
+        }
+        this.itemRepository = itemRepository;
+        this.shards = shards;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-stock-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 재고에서 quantity 만큼 차감
+     * @return 차감했으면 true, 재고가 부족하거나 상품이 없으면 false
+     */
+    public boolean reserve(Long itemId, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("quantity must be positive. quantity=" + quantity);
+        }
+        ItemStock stock = stockOf(itemId);
+        return stock != null && stock.reserve(quantity);
+    }
+
+    /**
+     * 메모리에 남은 재고 (아직 반영하지 않은 차감 포함), 없는 상품이면 0
+     */
+    public long available(Long itemId) {
+        ItemStock stock = stockOf(itemId);
+        return stock == null ? 0 : stock.available();
+    }
+
+    /**
+     * 차감한 수량을 DB 에 반영 (flushInterval 마다 자동 호출)
+     */
+    public synchronized void flush() {
+        stocks.forEach(this::flush);
+    }
+
+    @Override
+    public void close() {
+        if (flusher.isShutdown()) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("item stock flusher did not terminate");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * computeIfAbsent 안에서 조회하면 DB round trip 동안 맵의 버킷 락을 잡고 있음
+     * => 맵 밖에서 조회하고 putIfAbsent (동시에 처음 차감하면 조회는 여러 번, 카운터는 먼저 등록된 하나만 사용)
+     */
+    private ItemStock stockOf(Long itemId) {
+        ItemStock stock = stocks.get(itemId);
+        if (stock != null) {
+            return stock;
+        }
+        Optional<Item> item = itemRepository.findById(itemId);
+        if (item.isEmpty()) {
+            return null;
+        }
+        ItemStock loaded = new ItemStock(shards, item.get().getQuantity());
+        ItemStock registered = stocks.putIfAbsent(itemId, loaded);
+        return registered != null ? registered : loaded;
+    }
+
+    private void flush(Long itemId, ItemStock stock) {
+        long sold = stock.drainSold();
+        if (sold == 0) {
+            return;
+        }
+        try {
+            if (!itemRepository.decreaseQuantity(itemId, Math.toIntExact(sold))) {
+                stock.restoreSold(sold);
+                reconcile(itemId, stock);
+            }
+        } catch (RuntimeException e) {
+            //=> 다음 flush 때 다시 반영
+            stock.restoreSold(sold);
+            log.warn("stock flush failed. itemId={}, sold={}", itemId, sold, e);
+        }
+    }
+
+    /**
+     * 반영이 거절된 상품 : 카운터는 그대로 두고(차감 중인 스레드도 같은 카운터 사용) DB 수량 기준으로 다시 맞춤
+     * 맞춘 뒤의 차감은 다음 flush 에서 반영
+     */
+    private void reconcile(Long itemId, ItemStock stock) {
+        long quantity = itemRepository.findById(itemId).map(Item::getQuantity).orElse(0);
+        long overSold = stock.reconcile(quantity);
+        if (overSold > 0) {
+            log.error("stock oversold, dropped reservations. itemId={}, quantity={}, overSold={}",
+                    itemId, quantity, overSold);
+        } else {
+            log.warn("stock flush rejected, reconciled with db. itemId={}, quantity={}", itemId, quantity);
+        }
+    }
+
+    /**
+     * 카운터마다 남은 수량(상위 32비트)과 반영 전 차감(하위 32비트)을 long 하나에 보관
+     * => 차감(남은 수량 -, 반영 전 차감 +)이 CAS 한 번이라 reconcile 이 중간 상태를 볼 수 없음
+     * 두 값 모두 상품 수량(int) 이하이므로 32비트를 넘지 않음
+     */
+    private static class ItemStock {
+        /**
+         * 카운터 사이 간격 (long 16개 = 128 바이트) => 카운터마다 다른 캐시 라인, 인접 라인 prefetch 도 겹치지 않음
+         */
+        private static final int STRIDE = 16;
+        private static final long SOLD_MASK = 0xFFFF_FFFFL;
+
+        private final int shards;
+        private final AtomicLongArray counters;
+
+        ItemStock(int shards, long quantity) {
+            this.shards = shards;
+            this.counters = new AtomicLongArray((shards + 2) * STRIDE); //=> 앞뒤로 한 칸씩 비움 (배열 헤더, 인접 객체와 떨어지도록)
+            distribute(quantity);
+        }
+
+        boolean reserve(int quantity) {
+            int home = (int) (Thread.currentThread().getId() % shards);
+            for (int i = 0; i < shards; i++) {
+                if (tryTake((home + i) % shards, quantity)) {
+                    return true;
+                }
+            }
+            return rebalanceAndTake(home, quantity);
+        }
+
+        /**
+         * 남은 수량이 quantity 이상일 때만 차감 (0 아래로 내려가지 않음)
+         */
+        private boolean tryTake(int shard, int quantity) {
+            int index = index(shard);
+            long current;
+            do {
+                current = counters.get(index);
+                if (remaining(current) < quantity) {
+                    return false;
+                }
+            } while (!counters.compareAndSet(index, current, current - ((long) quantity << 32) + quantity));
+            return true;
+        }
+
+        /**
+         * 카운터마다 조금씩 남아서 어느 카운터로도 부족한 경우 => 모두 모아서 차감하고 남은 수량은 다시 나눔
+         */
+        private synchronized boolean rebalanceAndTake(int home, int quantity) {
+            long total = 0;
+            for (int i = 0; i < shards; i++) {
+                total += remaining(counters.getAndUpdate(index(i), counter -> counter & SOLD_MASK));
+            }
+            boolean taken = total >= quantity;
+            if (taken) {
+                total -= quantity;
+                counters.addAndGet(index(home), quantity);
+            }
+            distribute(total);
+            return taken;
+        }
+
+        private void distribute(long quantity) {
+            long base = quantity / shards;
+            long rest = quantity % shards;
+            for (int i = 0; i < shards; i++) {
+                counters.addAndGet(index(i), (base + (i < rest ? 1 : 0)) << 32);
+            }
+        }
+
+        /**
+         * 남은 수량 = quantity - 반영 전 차감 (rebalanceAndTake 와 같은 락)
+         * 카운터마다 남은 수량과 반영 전 차감을 한 번에 가져가므로 동시에 승인된 차감도 빠짐없이 포함
+         * 반영 전 차감이 quantity 보다 많으면 quantity 만 남기고 나머지를 버림
+         * @return 버린 수량
+         */
+        synchronized long reconcile(long quantity) {
+            long pending = 0;
+            for (int i = 0; i < shards; i++) {
+                pending += sold(counters.getAndSet(index(i), 0));
+            }
+            long overSold = Math.max(0, pending - quantity);
+            restoreSold(pending - overSold);
+            distribute(quantity - (pending - overSold));
+            return overSold;
+        }
+
+        long available() {
+            long total = 0;
+            for (int i = 0; i < shards; i++) {
+                total += remaining(counters.get(index(i)));
+            }
+            return total;
+        }
+
+        long drainSold() {
+            long sold = 0;
+            for (int i = 0; i < shards; i++) {
+                sold += sold(counters.getAndUpdate(index(i), counter -> counter & ~SOLD_MASK));
+            }
+            return sold;
+        }
+
+        void restoreSold(long sold) {
+            counters.addAndGet(index(0), sold);
+        }
+
+        private static int index(int shard) {
+            return (shard + 1) * STRIDE;
+        }
+
+        private static long remaining(long counter) {
+            return counter >>> 32;
+        }
+
+        private static long sold(long counter) {
+            return counter & SOLD_MASK;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemUpdateDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 버전 충돌(OptimisticLockingFailureException)이 나면 다시 읽어서 재시도하는 수정 도우미 (일괄 수정 작업용)
+ *
+ * - update(itemId, change) : 현재 Item 을 읽고 change 로 수정 값을 만든 뒤, 읽은 버전으로 수정
+ *   => 그 사이 다른 요청이 먼저 수정했으면 충돌 => 다시 읽어서 change 를 다시 적용
+ * - change 는 여러 번 호출될 수 있으므로 전달받은 Item 으로만 값을 계산
+ * - 재시도 전에 0 ~ backoff * 시도 횟수 사이에서 임의로 대기 (충돌한 요청끼리 다시 겹치지 않도록)
+ * - maxAttempts 번 모두 충돌하면 마지막 예외를 그대로 던짐
+ * - 락을 잡지 않으므로 다른 상품을 수정하는 요청끼리는 기다리지 않음 (SELECT ... FOR UPDATE 와 차이)
+ * - 시도마다 새로 읽어야 하므로 트랜잭션 밖에서 호출
+ *
+ * 화면(ItemController.edit)의 수정은 재시도하지 않음 => 사용자가 본 값이 바뀌었으므로 다시 확인 받음
+ */
+@Slf4j
+public class ItemUpdateRetry {
+
+    private final ItemService itemService;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final LongAdder conflictCount = new LongAdder();
+
+    public ItemUpdateRetry(ItemService itemService, int maxAttempts, Duration backoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive. maxAttempts=" + maxAttempts);
+        }
+        this.itemService = itemService;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+    }
+
+    public void update(Long itemId, Function<Item, ItemUpdateDto> change) {
+        for (int attempt = 1; ; attempt++) {
+            Item item = itemService.findById(itemId).orElseThrow();
+            ItemUpdateDto updateParam = change.apply(item);
+            updateParam.setVersion(item.getVersion());
+            try {
+                itemService.update(itemId, updateParam);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                conflictCount.increment();
+                if (attempt >= maxAttempts) {
+                    log.warn("update conflict. itemId={}, attempts={}", itemId, attempt);
+                    throw e;
+                }
+                pause(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * 충돌 횟수 (재시도 + 최종 실패)
+     */
+    public long conflictCount() {
+        return conflictCount.sum();
+    }
+
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        long maxNanos = backoff.toNanos() * attempt;
+        if (maxNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(maxNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
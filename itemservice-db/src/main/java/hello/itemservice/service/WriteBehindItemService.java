@@ -0,0 +1,289 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * update 를 메모리에 모아 두었다가 주기적으로 한 번에 반영하는 ItemService 데코레이터 (write-behind)
+ *
+ * - update 는 itemId 별 버퍼에 넣고 바로 반환, 같은 상품을 다시 수정하면 이전 값을 덮어씀
+ *   (부분 수정이면 null 이 아닌 필드만 덮어씀 => 가격만 바꾼 뒤 수량만 바꾸면 둘 다 반영)
+ *   => 반영 전에 여러 번 수정해도 DB 에는 마지막 값 한 번만 씀
+ * - flushInterval 마다 버퍼를 target.updateAll 한 번으로 반영 (JDBC 배치)
+ * - 버퍼가 maxPending 건이 되면 update 를 호출한 스레드가 바로 반영
+ *   그래도 가득 차 있거나 DB 에 연결할 수 없는 동안에는 새 상품의 update 를 TransientDataAccessResourceException 으로 거절
+ *   (버퍼에 있는 상품의 update 는 기존 항목에 합쳐지므로 받음) => 버퍼는 대략 maxPending 건을 넘지 않음
+ * - 조회 결과에는 아직 반영하지 않은 값을 덮어서 반환 (read-your-writes)
+ *   검색 조건(상품명, 가격)은 DB 값으로 비교하므로, 반영 전에는 바뀐 값으로 검색되지 않을 수 있음
+ * - version 이 있는 update(화면 수정)는 버퍼에 넣지 않음 => 같은 상품의 버퍼를 먼저 반영한 뒤 바로 수정 (버전 충돌을 바로 알려야 하므로)
+ * - updateAll 이 실패하면 한 건씩 다시 반영 => 문제 있는 상품(삭제된 상품, 제약 조건 위반) 때문에 나머지가 막히지 않음
+ *   한 건씩 반영해도 실패한 수정은 버림 (error 로그, droppedCount)
+ *   DB 에 연결할 수 없는 실패(isUnavailable)는 버리지 않고 버퍼에 남겨서 다음 주기에 다시 반영
+ * - close() : 남은 버퍼를 반영한 뒤 종료 (비정상 종료하거나 종료할 때 DB 에 연결할 수 없으면 버퍼의 수정이 사라짐)
+ *
+ * CachingItemService 를 target 으로 감싸야 반영할 때 캐시가 무효화됨
+ */
+@Slf4j
+public class WriteBehindItemService implements ItemService, AutoCloseable {
+
+    private final ItemService target;
+    private final int maxPending;
+    private final ScheduledExecutorService flusher;
+    private final Map<Long, ItemUpdateDto> pending = new ConcurrentHashMap<>();
+    private final LongAdder updateCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private volatile boolean unavailable; //=> 마지막 반영이 DB 연결 실패로 끝남 (주기적인 flush 가 성공할 때까지 새 update 거절)
+
+    public WriteBehindItemService(ItemService target, int maxPending, Duration flushInterval) {
+        this.target = target;
+        this.maxPending = maxPending;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Item save(Item item) {
+        return target.save(item);
+    }
+
+    @Override
+    public void update(Long itemId, ItemUpdateDto updateParam) {
+        if (updateParam.getVersion() != null) {
+            flush(itemId);
+            target.update(itemId, updateParam);
+            return;
+        }
+        if (!pending.containsKey(itemId) && pending.size() >= maxPending) {
+            if (!unavailable) {
+                flush(); //=> 다른 스레드가 반영 중이면 끝날 때까지 대기
+            }
+            if (unavailable || pending.size() >= maxPending) {
+                throw new TransientDataAccessResourceException(
+                        "item write-behind buffer is full. itemId=" + itemId + ", pending=" + pending.size());
+            }
+        }
+        updateCount.increment();
+        pending.merge(itemId, new ItemUpdateDto(updateParam.getItemName(), updateParam.getPrice(), updateParam.getQuantity()),
+                WriteBehindItemService::merge);
+        if (pending.size() >= maxPending && !unavailable) {
+            flush();
+        }
+    }
+
+    @Override
+    public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+        updateParams.forEach(this::update);
+    }
+
+    /**
+     * 버퍼를 먼저 읽고 target 을 조회 => 그 사이 반영되어도 버퍼의 값이 보임
+     */
+    @Override
+    public Optional<Item> findById(Long id) {
+        ItemUpdateDto buffered = pending.get(id);
+        return target.findById(id).map(item -> overlay(item, buffered));
+    }
+
+    @Override
+    public List<Item> findItems(ItemSearchCond cond) {
+        Map<Long, ItemUpdateDto> buffered = Map.copyOf(pending);
+        return overlay(target.findItems(cond), buffered);
+    }
+
+    @Override
+    public CursorPage<Item> findItemPage(ItemSearchCond cond) {
+        Map<Long, ItemUpdateDto> buffered = Map.copyOf(pending);
+        CursorPage<Item> page = target.findItemPage(cond);
+        return new CursorPage<>(overlay(page.getContent(), buffered), page.getNextCursor());
+    }
+
+    @Override
+    public CursorPage<ItemListDto> findItemListPage(ItemSearchCond cond) {
+        Map<Long, ItemUpdateDto> buffered = Map.copyOf(pending);
+        CursorPage<ItemListDto> page = target.findItemListPage(cond);
+        if (buffered.isEmpty()) {
+            return page;
+        }
+        List<ItemListDto> content = page.getContent().stream()
+                .map(row -> {
+                    ItemUpdateDto updateParam = buffered.get(row.getId());
+                    if (updateParam == null) {
+                        return row;
+                    }
+                    ItemUpdateDto merged = merge(new ItemUpdateDto(row.getItemName(), row.getPrice(), row.getQuantity()), updateParam);
+                    return new ItemListDto(row.getId(), merged.getItemName(), merged.getPrice(), merged.getQuantity());
+                })
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, page.getNextCursor());
+    }
+
+    /**
+     * 버퍼를 target.updateAll 한 번으로 반영 (flushInterval 마다 자동 호출)
+     * 반영하는 동안 다시 수정된 상품은 버퍼에 남김
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        write(new HashMap<>(pending));
+    }
+
+    /**
+     * 반영 전 update 호출 수
+     */
+    public long updateCount() {
+        return updateCount.sum();
+    }
+
+    /**
+     * 실제로 반영한 건수 (updateCount 와의 차이가 합쳐진 수정)
+     */
+    public long writeCount() {
+        return writeCount.sum();
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 한 건씩 반영해도 실패해서 버린 수정 수
+     */
+    public long droppedCount() {
+        return droppedCount.sum();
+    }
+
+    @Override
+    public void close() {
+        if (flusher.isShutdown()) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("item write-behind flusher did not terminate");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("item write-behind closed with unwritten updates. itemIds={}", pending.keySet());
+        }
+    }
+
+    /**
+     * 실패하면 예외를 그대로 던짐 => 남은 버퍼가 뒤에 오는 수정을 덮어쓰지 않도록 수정도 하지 않음
+     */
+    private synchronized void flush(Long itemId) {
+        ItemUpdateDto updateParam = pending.get(itemId);
+        if (updateParam != null) {
+            target.updateAll(Map.of(itemId, updateParam));
+            writeCount.increment();
+            pending.remove(itemId, updateParam);
+        }
+    }
+
+    private void write(Map<Long, ItemUpdateDto> updateParams) {
+        try {
+            target.updateAll(updateParams);
+            writeCount.add(updateParams.size());
+            updateParams.forEach(pending::remove);
+            unavailable = false;
+            return;
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                unavailable = true;
+                log.warn("item write-behind flush failed, will retry. count={}", updateParams.size(), e);
+                return;
+            }
+            log.warn("item write-behind flush failed, writing one by one. count={}", updateParams.size(), e);
+        }
+
+        for (Map.Entry<Long, ItemUpdateDto> entry : updateParams.entrySet()) {
+            try {
+                target.updateAll(Map.of(entry.getKey(), entry.getValue()));
+                writeCount.increment();
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) { //=> 남은 상품은 버퍼에 둔 채로 다음 주기에 다시 반영
+                    unavailable = true;
+                    log.warn("item write-behind flush failed, will retry. itemId={}", entry.getKey(), e);
+                    return;
+                }
+                droppedCount.increment();
+                log.error("item write-behind dropped update. itemId={}, updateParam={}",
+                        entry.getKey(), entry.getValue(), e);
+            }
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        unavailable = false;
+    }
+
+    /**
+     * DB 에 연결할 수 없거나 일시적인 오류 => 상품의 문제가 아니므로 수정을 버리지 않음
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private static List<Item> overlay(List<Item> items, Map<Long, ItemUpdateDto> buffered) {
+        if (buffered.isEmpty()) {
+            return items;
+        }
+        return items.stream()
+                .map(item -> overlay(item, buffered.get(item.getId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * target 이 영속 상태 엔티티를 돌려줄 수 있으므로(OSIV) 수정하지 않고 복사본에 덮어씀
+     */
+    private static Item overlay(Item item, ItemUpdateDto updateParam) {
+        if (updateParam == null) {
+            return item;
+        }
+        Item copy = item.copy();
+        updateParam.applyTo(copy);
+        return copy;
+    }
+
+    /**
+     * 나중 수정의 null 이 아닌 필드가 우선
+     */
+    private static ItemUpdateDto merge(ItemUpdateDto earlier, ItemUpdateDto later) {
+        return new ItemUpdateDto(
+                later.getItemName() != null ? later.getItemName() : earlier.getItemName(),
+                later.getPrice() != null ? later.getPrice() : earlier.getPrice(),
+                later.getQuantity() != null ? later.getQuantity() : earlier.getQuantity());
+    }
+}
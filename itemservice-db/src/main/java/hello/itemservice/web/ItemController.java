@@ -1,17 +1,18 @@
 package hello.itemservice.web;
 
 import hello.itemservice.domain.Item;
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
 import hello.itemservice.service.ItemService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 @Controller
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -21,8 +22,9 @@ public class ItemController {
 
     @GetMapping
     public String items(@ModelAttribute("itemSearch") ItemSearchCond itemSearch, Model model) {
-        List<Item> items = itemService.findItems(itemSearch);
-        model.addAttribute("items", items);
+        CursorPage<ItemListDto> page = itemService.findItemListPage(itemSearch); //=> 엔티티 대신 DTO 조회
+        model.addAttribute("items", page.getContent());
+        model.addAttribute("nextCursor", page.getNextCursor());
         return "items";
     }
 
@@ -53,9 +55,18 @@ public class ItemController {
         return "editForm";
     }
 
+    /**
+     * 폼을 연 뒤 다른 요청이 먼저 수정했으면 (version 불일치) 덮어쓰지 않고 최신 값으로 폼을 다시 보여줌
+     */
     @PostMapping("/{itemId}/edit")
-    public String edit(@PathVariable Long itemId, @ModelAttribute ItemUpdateDto updateParam) {
-        itemService.update(itemId, updateParam);
+    public String edit(@PathVariable Long itemId, @ModelAttribute ItemUpdateDto updateParam, Model model) {
+        try {
+            itemService.update(itemId, updateParam);
+        } catch (OptimisticLockingFailureException e) {
+            model.addAttribute("item", itemService.findById(itemId).get());
+            model.addAttribute("conflict", true);
+            return "editForm";
+        }
         return "redirect:/items/{itemId}";
     }
 
@@ -0,0 +1,87 @@
+package hello.itemservice.config;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.service.ItemServiceV2;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary 1개 + replica 2개 (각각 별도의 H2 메모리 DB)
+ * - 2차 캐시, 쿼리 캐시를 끄고 실제로 어느 DB 에서 조회했는지 확인
+ */
+@SpringBootTest(properties = {
+        "item.datasource.primary.url=" + ReplicationDataSourceConfigTest.PRIMARY_URL,
+        "item.datasource.replicas[0].url=" + ReplicationDataSourceConfigTest.REPLICA0_URL,
+        "item.datasource.replicas[1].url=" + ReplicationDataSourceConfigTest.REPLICA1_URL,
+        "spring.sql.init.mode=always",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class ReplicationDataSourceConfigTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA0_URL = "jdbc:h2:mem:routing-replica0;DB_CLOSE_DELAY=-1";
+    static final String REPLICA1_URL = "jdbc:h2:mem:routing-replica1;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    ItemServiceV2 itemService;
+
+    JdbcTemplate primary = template(PRIMARY_URL);
+    JdbcTemplate replica0 = template(REPLICA0_URL);
+    JdbcTemplate replica1 = template(REPLICA1_URL);
+
+    @BeforeEach
+    void beforeEach() {
+        //replica 는 복제 대신 직접 테이블, 데이터 생성
+        for (JdbcTemplate replica : List.of(replica0, replica1)) {
+            replica.execute("create table if not exists item (id bigint primary key, " +
+                    "item_name varchar(10), price integer, quantity integer, version bigint default 0 not null)");
+            replica.update("delete from item");
+        }
+        replica0.update("insert into item values (1, 'replica0', 1000, 1, 0)");
+        replica1.update("insert into item values (1, 'replica1', 1000, 1, 0)");
+        primary.update("delete from item");
+    }
+
+    @Test
+    void write_goesToPrimary() {
+        itemService.save(new Item("primary", 1000, 1));
+
+        assertThat(primary.queryForList("select item_name from item", String.class)).containsExactly("primary");
+        assertThat(replica0.queryForObject("select count(*) from item where item_name = 'primary'", Integer.class)).isZero();
+        assertThat(replica1.queryForObject("select count(*) from item where item_name = 'primary'", Integer.class)).isZero();
+    }
+
+    @Test
+    void readOnly_goesToReplicas_roundRobin() {
+        itemService.save(new Item("primary", 1000, 1));
+
+        //findItems, findById 는 @Transactional(readOnly = true)
+        List<String> names = List.of(findItemName(), findItemName(), findItemName(), findItemName());
+
+        assertThat(names).doesNotContain("primary");
+        assertThat(names).containsOnly("replica0", "replica1");
+        assertThat(names.get(0)).isNotEqualTo(names.get(1));
+        assertThat(itemService.findById(1L)).map(Item::getItemName).get().isIn("replica0", "replica1");
+    }
+
+    private String findItemName() {
+        return itemService.findItems(new ItemSearchCond()).stream()
+                .map(Item::getItemName)
+                .collect(Collectors.joining(","));
+    }
+
+    private static JdbcTemplate template(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+}
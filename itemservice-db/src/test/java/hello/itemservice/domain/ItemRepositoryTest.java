@@ -1,18 +1,27 @@
 package hello.itemservice.domain;
 
+import hello.itemservice.repository.CursorPage;
+import hello.itemservice.repository.ItemListDto;
 import hello.itemservice.repository.ItemRepository;
 import hello.itemservice.repository.ItemSearchCond;
 import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.UpsertResult;
+import hello.itemservice.repository.memory.IndexedMemoryItemRepository;
 import hello.itemservice.repository.memory.MemoryItemRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Transactional
 @SpringBootTest
@@ -27,6 +36,9 @@ class ItemRepositoryTest {
         if (itemRepository instanceof MemoryItemRepository) {
             ((MemoryItemRepository) itemRepository).clearStore();
         }
+        if (itemRepository instanceof IndexedMemoryItemRepository) {
+            ((IndexedMemoryItemRepository) itemRepository).clearStore();
+        }
     }
 
     @Test
@@ -60,6 +72,166 @@ class ItemRepositoryTest {
         assertThat(findItem.getQuantity()).isEqualTo(updateParam.getQuantity());
     }
 
+    @Test
+    void updateWithVersion() {
+        //given
+        Item item = itemRepository.save(new Item("item1", 10000, 10));
+        Long version = item.getVersion();
+        assertThat(version).isNotNull();
+
+        //when : 읽은 버전으로 수정 => 성공
+        itemRepository.update(item.getId(), new ItemUpdateDto("item2", 20000, 20, version));
+
+        //then : 다른 버전으로 수정 => 실패, 값은 그대로
+        assertThatThrownBy(() -> itemRepository.update(item.getId(), new ItemUpdateDto("item3", 30000, 30, version + 100)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThatThrownBy(() -> itemRepository.updateAll(Map.of(item.getId(), new ItemUpdateDto("item3", 30000, 30, version + 100))))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        List<Item> result = itemRepository.findAll(new ItemSearchCond(null, null));
+        assertThat(result).extracting(Item::getItemName).containsExactly("item2");
+        assertThat(result).extracting(Item::getVersion).containsExactly(version + 1);
+    }
+
+    @Test
+    void partialUpdate() {
+        //given
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        Long version = itemA.getVersion();
+
+        //when : null 인 필드는 수정하지 않음 (수정하는 컬럼이 다른 건을 한 번에)
+        itemRepository.update(itemA.getId(), new ItemUpdateDto(null, 11000, null));
+        itemRepository.updateAll(Map.of(
+                itemA.getId(), new ItemUpdateDto(null, null, 15),
+                itemB.getId(), new ItemUpdateDto("itemB2", null, null)));
+
+        //then
+        Item findItemA = itemRepository.findById(itemA.getId()).get();
+        assertThat(findItemA.getItemName()).isEqualTo("itemA");
+        assertThat(findItemA.getPrice()).isEqualTo(11000);
+        assertThat(findItemA.getQuantity()).isEqualTo(15);
+        assertThat(findItemA.getVersion()).isEqualTo(version + 2);
+        Item findItemB = itemRepository.findById(itemB.getId()).get();
+        assertThat(findItemB.getItemName()).isEqualTo("itemB2");
+        assertThat(findItemB.getPrice()).isEqualTo(20000);
+        assertThat(findItemB.getQuantity()).isEqualTo(20);
+    }
+
+    @Test
+    void decreaseQuantity() {
+        //given
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+
+        //when
+        boolean decreased = itemRepository.decreaseQuantity(item.getId(), 3);
+        boolean insufficient = itemRepository.decreaseQuantity(item.getId(), 8);
+        boolean notFound = itemRepository.decreaseQuantity(-1L, 1);
+
+        //then
+        assertThat(decreased).isTrue();
+        assertThat(insufficient).isFalse();
+        assertThat(notFound).isFalse();
+        Item findItem = itemRepository.findById(item.getId()).get();
+        assertThat(findItem.getQuantity()).isEqualTo(7);
+        assertThat(findItem.getVersion()).isEqualTo(item.getVersion() + 1);
+    }
+
+    @Test
+    void saveAllWithNullPriceAndQuantity() {
+        //save 와 같이 가격, 수량이 없는 상품도 저장
+        List<Item> savedItems = itemRepository.saveAll(List.of(new Item("itemA", null, null)));
+
+        Item findItem = itemRepository.findById(savedItems.get(0).getId()).get();
+        assertThat(findItem.getItemName()).isEqualTo("itemA");
+        assertThat(findItem.getPrice()).isNull();
+        assertThat(findItem.getQuantity()).isNull();
+    }
+
+    @Test
+    void saveAll() {
+        //given
+        List<Item> items = List.of(
+                new Item("itemA", 10000, 10),
+                new Item("itemB", 20000, 20),
+                new Item("itemC", 30000, 30));
+
+        //when
+        List<Item> savedItems = itemRepository.saveAll(items);
+
+        //then
+        assertThat(savedItems).extracting(Item::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (Item savedItem : savedItems) {
+            Item findItem = itemRepository.findById(savedItem.getId()).get();
+            assertThat(findItem.getItemName()).isEqualTo(savedItem.getItemName());
+        }
+    }
+
+    @Test
+    void updateAll() {
+        //given
+        Item item1 = itemRepository.save(new Item("item1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("item2", 20000, 20));
+
+        //when
+        Map<Long, ItemUpdateDto> updateParams = Map.of(
+                item1.getId(), new ItemUpdateDto("item1-new", 11000, 11),
+                item2.getId(), new ItemUpdateDto("item2-new", 22000, 22));
+        itemRepository.updateAll(updateParams);
+
+        //then
+        updateParams.forEach((itemId, updateParam) -> {
+            Item findItem = itemRepository.findById(itemId).get();
+            assertThat(findItem.getItemName()).isEqualTo(updateParam.getItemName());
+            assertThat(findItem.getPrice()).isEqualTo(updateParam.getPrice());
+            assertThat(findItem.getQuantity()).isEqualTo(updateParam.getQuantity());
+        });
+    }
+
+    @Test
+    void upsertAll() {
+        //given : 이미 있는 상품 + 피드에만 있는 상품 (item_seq 로 만드는 ID 와 겹치지 않는 ID)
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        Long version = item.getVersion();
+        Item feedA = new Item("itemA2", 11000, 11);
+        feedA.setId(item.getId());
+        Item feedB = new Item("itemB", 20000, 20);
+        feedB.setId(1_000_000_000L);
+
+        //when : 같은 피드를 다시 받으면 모두 수정
+        UpsertResult first = itemRepository.upsertAll(List.of(feedA, feedB));
+        UpsertResult second = itemRepository.upsertAll(List.of(feedB));
+
+        //then
+        assertThat(first).isEqualTo(new UpsertResult(1, 1));
+        assertThat(second).isEqualTo(new UpsertResult(0, 1));
+        Item findItemA = itemRepository.findById(item.getId()).get();
+        assertThat(findItemA.getItemName()).isEqualTo("itemA2");
+        assertThat(findItemA.getPrice()).isEqualTo(11000);
+        assertThat(findItemA.getVersion()).isEqualTo(version + 1);
+        Item findItemB = itemRepository.findById(feedB.getId()).get();
+        assertThat(findItemB.getItemName()).isEqualTo("itemB");
+        assertThat(findItemB.getVersion()).isEqualTo(1L);
+
+        //id 가 없으면 아무것도 반영하지 않음
+        assertThatThrownBy(() -> itemRepository.upsertAll(List.of(feedA, new Item("itemC", 30000, 30))))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class);
+    }
+
+    @Test
+    void findAllByIds() {
+        //given
+        Item item1 = itemRepository.save(new Item("itemA", 10000, 10));
+        Item item2 = itemRepository.save(new Item("itemB", 20000, 20));
+        itemRepository.save(new Item("itemC", 30000, 30));
+
+        //when : 없는 ID, 중복 ID 포함
+        List<Item> result = itemRepository.findAllByIds(List.of(item2.getId(), item1.getId(), item1.getId(), -1L));
+
+        //then
+        assertThat(result).containsExactlyInAnyOrder(item1, item2);
+        assertThat(itemRepository.findAllByIds(List.of())).isEmpty();
+    }
+
     @Test
     void findItems() {
         //given
@@ -87,6 +259,80 @@ class ItemRepositoryTest {
         test("itemA", 10000, item1);
     }
 
+    @Test
+    void findAllByNameIndex() {
+        //given
+        Item item1 = itemRepository.save(new Item("itemA-1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("itemA-2", 20000, 20));
+        Item item3 = itemRepository.save(new Item("itemB-1", 30000, 30));
+
+        //상품명 변경 => 색인도 갱신
+        itemRepository.update(item3.getId(), new ItemUpdateDto("itemA-3", 30000, 30));
+        item3 = itemRepository.findById(item3.getId()).get();
+
+        //then
+        assertThat(itemRepository.findAllByNameIndex(new ItemSearchCond("temA", null))).containsExactly(item1, item2, item3);
+        assertThat(itemRepository.findAllByNameIndex(new ItemSearchCond("A-2", null))).containsExactly(item2);
+        assertThat(itemRepository.findAllByNameIndex(new ItemSearchCond("itemB", null))).isEmpty();
+        assertThat(itemRepository.findAllByNameIndex(new ItemSearchCond("itemA", 20000, item1.getId(), 10))).containsExactly(item2);
+
+        //3글자 미만은 findAll 로 조회
+        assertThat(itemRepository.findAllByNameIndex(new ItemSearchCond("-1", null))).containsExactly(item1);
+    }
+
+    @Test
+    void findPage() {
+        //given
+        Item item1 = itemRepository.save(new Item("itemA-1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("itemA-2", 20000, 20));
+        Item item3 = itemRepository.save(new Item("itemA-3", 30000, 30));
+        itemRepository.save(new Item("itemB-1", 40000, 40));
+
+        //when
+        CursorPage<Item> first = itemRepository.findPage(new ItemSearchCond("itemA", null, null, 2));
+        CursorPage<Item> second = itemRepository.findPage(new ItemSearchCond("itemA", null, first.getNextCursor(), 2));
+
+        //then
+        assertThat(first.getContent()).containsExactly(item1, item2);
+        assertThat(first.getNextCursor()).isEqualTo(item2.getId());
+        assertThat(second.getContent()).containsExactly(item3);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void findListPage() {
+        //given
+        Item item1 = itemRepository.save(new Item("itemA-1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("itemA-2", 20000, 20));
+        Item item3 = itemRepository.save(new Item("itemA-3", 30000, 30));
+        itemRepository.save(new Item("itemB-1", 40000, 40));
+
+        //when
+        CursorPage<ItemListDto> first = itemRepository.findListPage(new ItemSearchCond("itemA", 30000, null, 2));
+        CursorPage<ItemListDto> second = itemRepository.findListPage(new ItemSearchCond("itemA", 30000, first.getNextCursor(), 2));
+
+        //then
+        assertThat(first.getContent()).containsExactly(ItemListDto.of(item1), ItemListDto.of(item2));
+        assertThat(first.getNextCursor()).isEqualTo(item2.getId());
+        assertThat(second.getContent()).containsExactly(ItemListDto.of(item3));
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void forEach() {
+        //given
+        Item item1 = itemRepository.save(new Item("itemA-1", 10000, 10));
+        Item item2 = itemRepository.save(new Item("itemA-2", 20000, 20));
+        itemRepository.save(new Item("itemB-1", 30000, 30));
+
+        //when
+        List<Item> result = new ArrayList<>();
+        itemRepository.forEach(new ItemSearchCond("itemA", null), result::add);
+
+        //then
+        assertThat(result).containsExactlyInAnyOrder(item1, item2);
+    }
+
     void test(String itemName, Integer maxPrice, Item... items) {
         List<Item> result = itemRepository.findAll(new ItemSearchCond(itemName, maxPrice));
         assertThat(result).containsExactly(items);
@@ -0,0 +1,68 @@
+package hello.itemservice.domain;
+
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.jdbctemplate.JdbcTemplateItemRepositoryV3;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 100만 건을 forEach 로 읽어도 힙이 일정한지 확인
+ * ./gradlew largeTest (-Xmx64m) 로 실행
+ *
+ * 테이블 데이터가 힙에 올라가지 않도록 파일 DB 사용
+ * 테이블은 sql/schema.sql 로 생성 (컬럼이 바뀌어도 따로 고치지 않도록, 프로젝트 디렉토리에서 실행)
+ */
+@Tag("large")
+class ItemStreamTest {
+
+    static final int ROW_COUNT = 1_000_000;
+
+    @TempDir
+    Path dir;
+
+    SingleConnectionDataSource dataSource;
+    JdbcTemplate template;
+
+    @BeforeEach
+    void beforeEach() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + dir.resolve("item") + ";LAZY_QUERY_EXECUTION=1;CACHE_SIZE=8192", "sa", "", true);
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new FileSystemResource("sql/schema.sql")), dataSource);
+        template = new JdbcTemplate(dataSource);
+        template.update("insert into item (item_name, price, quantity) " +
+                "select concat('i', x), mod(x, 100000), 1 from system_range(1, ?)", ROW_COUNT);
+    }
+
+    @AfterEach
+    void afterEach() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void forEach() {
+        JdbcTemplateItemRepositoryV3 itemRepository = new JdbcTemplateItemRepositoryV3(dataSource);
+        AtomicLong count = new AtomicLong();
+        AtomicLong lastId = new AtomicLong();
+
+        itemRepository.forEach(new ItemSearchCond(), item -> {
+            count.incrementAndGet();
+            lastId.set(item.getId());
+        });
+
+        assertThat(count.get()).isEqualTo(ROW_COUNT);
+        assertThat(lastId.get()).isEqualTo(template.queryForObject("select max(id) from item", Long.class));
+    }
+}
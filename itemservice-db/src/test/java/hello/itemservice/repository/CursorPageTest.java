@@ -0,0 +1,39 @@
+package hello.itemservice.repository;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CursorPageTest {
+
+    @Test
+    void limitOutOfRangeIsAdjusted() {
+        assertThat(CursorPage.limitOf(cond(null))).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.limitOf(cond(0))).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.limitOf(cond(-5))).isEqualTo(CursorPage.DEFAULT_LIMIT);
+        assertThat(CursorPage.limitOf(cond(CursorPage.MAX_LIMIT + 1))).isEqualTo(CursorPage.MAX_LIMIT);
+        assertThat(CursorPage.probe(cond(Integer.MAX_VALUE)).getLimit()).isEqualTo(CursorPage.MAX_LIMIT + 1);
+    }
+
+    @Test
+    void findPageWithInvalidLimit() {
+        //given
+        MemoryItemRepository itemRepository = new MemoryItemRepository();
+        for (int i = 0; i < CursorPage.MAX_LIMIT + 10; i++) {
+            itemRepository.save(new Item("item" + i, 1000, 1));
+        }
+
+        //when, then : 0, 음수 => 기본 크기, 너무 크면 최대 크기
+        assertThat(itemRepository.findPage(cond(0)).getContent()).hasSize(CursorPage.DEFAULT_LIMIT);
+        assertThat(itemRepository.findPage(cond(-1)).getContent()).hasSize(CursorPage.DEFAULT_LIMIT);
+        CursorPage<Item> page = itemRepository.findPage(cond(Integer.MAX_VALUE));
+        assertThat(page.getContent()).hasSize(CursorPage.MAX_LIMIT);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    private static ItemSearchCond cond(Integer limit) {
+        return new ItemSearchCond(null, null, null, limit);
+    }
+}
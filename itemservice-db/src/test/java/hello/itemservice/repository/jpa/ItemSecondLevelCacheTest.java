@@ -0,0 +1,120 @@
+package hello.itemservice.repository.jpa;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemRepository;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.v2.ItemRepositoryV2;
+import hello.itemservice.service.ItemServiceV2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 트랜잭션(영속성 컨텍스트)을 넘어서 동작하므로 @Transactional 을 사용하지 않고 커밋
+ */
+@SpringBootTest
+class ItemSecondLevelCacheTest {
+
+    private static final String QUERY_REGION = "default-query-results-region";
+
+    @Autowired
+    ItemServiceV2 itemService;
+
+    @Autowired
+    ItemRepository itemRepository; //JpaItemRepositoryV3
+
+    @Autowired
+    ItemRepositoryV2 itemRepositoryV2;
+
+    @Autowired
+    HibernateCacheStatistics cacheStatistics;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @AfterEach
+    void afterEach() {
+        itemRepositoryV2.deleteAllInBatch();
+    }
+
+    @Test
+    void findById_fromSecondLevelCache() {
+        Item savedItem = itemService.save(new Item("cacheA", 10000, 10));
+        long hitCount = cacheStatistics.region(Item.CACHE_REGION).getHitCount();
+
+        //다른 트랜잭션(영속성 컨텍스트)에서 조회
+        Item findItem = itemRepository.findById(savedItem.getId()).orElseThrow();
+
+        assertThat(findItem.getItemName()).isEqualTo("cacheA");
+        assertThat(cacheStatistics.region(Item.CACHE_REGION).getHitCount()).isEqualTo(hitCount + 1);
+        assertThat(cacheStatistics.hitRatios()).containsKey(Item.CACHE_REGION);
+    }
+
+    @Test
+    void update_dirtyChecking_refreshesCache() {
+        Item savedItem = itemService.save(new Item("cacheA", 10000, 10));
+        itemRepository.findById(savedItem.getId());
+
+        //ItemServiceV2.update 는 변경 감지로 수정
+        itemService.update(savedItem.getId(), new ItemUpdateDto("cacheB", 20000, 20));
+
+        Item findItem = itemRepository.findById(savedItem.getId()).orElseThrow();
+        assertThat(findItem.getItemName()).isEqualTo("cacheB");
+        assertThat(findItem.getPrice()).isEqualTo(20000);
+        assertThat(findItem.getQuantity()).isEqualTo(20);
+    }
+
+    @Test
+    void decreaseQuantity_detachesOnlyThatItem() {
+        Item itemA = itemService.save(new Item("cacheA", 10000, 10));
+        Item itemB = itemService.save(new Item("cacheB", 20000, 20));
+        itemRepository.findById(itemA.getId()); //=> 2차 캐시에 적재
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Item managedA = em.find(Item.class, itemA.getId());
+            Item managedB = em.find(Item.class, itemB.getId());
+
+            assertThat(itemRepository.decreaseQuantity(itemA.getId(), 3)).isTrue();
+
+            //차감한 Item 만 분리, 같은 트랜잭션의 다른 엔티티는 그대로 관리 (변경 감지 유지)
+            assertThat(em.contains(managedA)).isFalse();
+            assertThat(em.contains(managedB)).isTrue();
+            assertThat(em.find(Item.class, itemA.getId()).getQuantity()).isEqualTo(7);
+            managedB.setPrice(25000);
+        });
+
+        assertThat(itemRepository.findById(itemA.getId()).orElseThrow().getQuantity()).isEqualTo(7);
+        assertThat(itemRepository.findById(itemB.getId()).orElseThrow().getPrice()).isEqualTo(25000);
+    }
+
+    @Test
+    void findItems_queryCache() {
+        Item savedItem = itemService.save(new Item("cacheA", 10000, 10));
+        ItemSearchCond cond = new ItemSearchCond("cache", 15000);
+        itemService.findItems(cond);
+        long hitCount = cacheStatistics.region(QUERY_REGION).getHitCount();
+
+        List<Item> cached = itemService.findItems(cond);
+        assertThat(cached).extracting(Item::getItemName).containsExactly("cacheA");
+        assertThat(cacheStatistics.region(QUERY_REGION).getHitCount()).isEqualTo(hitCount + 1);
+
+        //변경 후에는 이전 쿼리 결과를 사용하지 않음
+        itemService.update(savedItem.getId(), new ItemUpdateDto("cacheB", 20000, 20));
+        assertThat(itemService.findItems(cond)).isEmpty();
+        assertThat(itemService.findItems(new ItemSearchCond("cache", null)))
+                .extracting(Item::getItemName).containsExactly("cacheB");
+    }
+}
@@ -0,0 +1,100 @@
+package hello.itemservice.repository.jpa;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * sql/item_seq_migration.sql 적용 후 ID 발급 (gradle test 는 프로젝트 디렉토리에서 실행)
+ *
+ * JPA 와 같은 pooled 최적화(allocationSize = 50)로 ID를 만들고,
+ * ID를 지정하지 않는 insert(JdbcTemplate, MyBatis)와 섞어서 저장해도 기존 ID 와 겹치지 않는지 확인
+ */
+class ItemSeqMigrationTest {
+
+    private static final long MAX_ID = 1000;
+
+    Connection con;
+
+    @BeforeEach
+    void beforeEach() throws SQLException {
+        con = DriverManager.getConnection("jdbc:h2:mem:item_seq_migration;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = con.createStatement()) {
+            //마이그레이션 전 테이블 (IDENTITY) + ID 를 지정해서 저장한 기존 데이터
+            st.execute("create table item (id bigint generated by default as identity, item_name varchar(10)," +
+                    " price integer, quantity integer, primary key (id))");
+            st.execute("insert into item (id, item_name) values (1, 'old'), (7, 'old'), (" + MAX_ID + ", 'old')");
+        }
+    }
+
+    @AfterEach
+    void afterEach() throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("drop all objects");
+        }
+        con.close();
+    }
+
+    @Test
+    void idsAfterMigrationDoNotCollide() throws SQLException {
+        //when
+        ScriptUtils.executeSqlScript(con, new FileSystemResource("sql/item_seq_migration.sql"));
+
+        PooledOptimizer optimizer = new PooledOptimizer(Long.class, 50);
+        optimizer.injectInitialValue(1); //=> @SequenceGenerator 기본값
+        AccessCallback sequence = new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(nextValue());
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return null;
+            }
+        };
+
+        //then : JPA 범위 두 개(100건) 사이에 기본값 insert => 기본 키 충돌 없이 모두 기존 최대 ID 보다 큼
+        try (PreparedStatement jpaInsert = con.prepareStatement("insert into item (id, item_name) values (?, 'jpa')");
+             Statement jdbcInsert = con.createStatement()) {
+            for (int i = 0; i < 100; i++) {
+                jpaInsert.setLong(1, (Long) optimizer.generate(sequence));
+                jpaInsert.executeUpdate();
+                if (i % 30 == 0) {
+                    jdbcInsert.executeUpdate("insert into item (item_name) values ('jdbc')");
+                }
+            }
+        }
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("select min(id), count(*) from item where item_name <> 'old'")) {
+            rs.next();
+            assertThat(rs.getLong(1)).isGreaterThan(MAX_ID);
+            assertThat(rs.getLong(2)).isEqualTo(104);
+        }
+    }
+
+    private long nextValue() {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("select next value for item_seq")) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 인덱스 조회 결과가 전체 스캔(MemoryItemRepository) 결과와 같은지 확인
+ */
+class IndexedMemoryItemRepositoryTest {
+
+    static final String LETTERS = "abcde ";
+
+    Random random = new Random(1);
+    MemoryItemRepository scanRepository = new MemoryItemRepository();
+    IndexedMemoryItemRepository indexedRepository = new IndexedMemoryItemRepository();
+
+    @Test
+    void sameResultAsScan() {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String itemName = randomName();
+            int price = random.nextInt(100);
+            scanRepository.save(new Item(itemName, price, 1));
+            ids.add(indexedRepository.save(new Item(itemName, price, 1)).getId());
+        }
+        for (int i = 0; i < 2_000; i++) {
+            Long itemId = ids.get(random.nextInt(ids.size()));
+            ItemUpdateDto updateParam = new ItemUpdateDto(randomName(), random.nextInt(100), 2);
+            scanRepository.update(itemId, updateParam);
+            indexedRepository.update(itemId, updateParam);
+        }
+
+        //then
+        List<String> names = new ArrayList<>(Arrays.asList(null, "", "a", "ab", "abc", "abcd", "e a", "zzz", "aaaaaaa"));
+        for (int i = 0; i < 50; i++) {
+            names.add(randomName());
+        }
+        for (String itemName : names) {
+            for (Integer maxPrice : Arrays.asList(null, 0, 10, 50, 99)) {
+                assertSameResult(new ItemSearchCond(itemName, maxPrice));
+                assertSameResult(new ItemSearchCond(itemName, maxPrice, 1_000L, 20));
+            }
+        }
+    }
+
+    @Test
+    void updateReindexes() {
+        Item item = indexedRepository.save(new Item("apple", 1000, 1));
+
+        indexedRepository.update(item.getId(), new ItemUpdateDto("banana", 3000, 1));
+
+        assertThat(indexedRepository.findAll(new ItemSearchCond("app", null))).isEmpty();
+        assertThat(indexedRepository.findAll(new ItemSearchCond(null, 2000))).isEmpty();
+        assertThat(indexedRepository.findAll(new ItemSearchCond("nan", 3000)))
+                .extracting(Item::getId).containsExactly(item.getId());
+    }
+
+    private void assertSameResult(ItemSearchCond cond) {
+        assertThat(indexedRepository.findAll(cond))
+                .as("cond=%s", cond)
+                .isEqualTo(scanRepository.findAll(cond));
+    }
+
+    private String randomName() {
+        int length = 1 + random.nextInt(8);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package hello.itemservice.repository.memory;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 멀티스레드 부하 테스트 (결과의 정확성만 확인, 처리량은 MemoryItemRepositoryScalingBenchmark)
+ */
+class MemoryItemRepositoryTest {
+
+    static final int OPS_PER_THREAD = 20_000;
+
+    MemoryItemRepository itemRepository = new MemoryItemRepository();
+
+    @Test
+    void concurrentSaveAndUpdate() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        //findAll 은 스냅샷을 읽으므로 같은 Item 의 name/price/quantity 가 항상 같은 update 에서 온 값
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        Future<?> readerResult = reader.submit(() -> {
+            while (running.get()) {
+                for (Item item : itemRepository.findAll(new ItemSearchCond())) {
+                    assertThat(item.getPrice()).isEqualTo(item.getQuantity() * 10);
+                }
+            }
+        });
+
+        runConcurrently(threads, OPS_PER_THREAD, () -> {
+            Item item = itemRepository.save(new Item("item", 10, 1));
+            assertThat(ids.add(item.getId())).isTrue();
+            for (int i = 2; i <= 5; i++) {
+                itemRepository.update(item.getId(), new ItemUpdateDto("item", i * 10, i));
+            }
+        });
+        running.set(false);
+        readerResult.get();
+        reader.shutdown();
+
+        List<Item> result = itemRepository.findAll(new ItemSearchCond());
+        assertThat(result).hasSize(threads * OPS_PER_THREAD);
+        assertThat(ids).hasSize(threads * OPS_PER_THREAD);
+        assertThat(result).allSatisfy(item -> assertThat(item.getQuantity()).isEqualTo(5));
+    }
+
+    @Test
+    void concurrentDecreaseOnHotItem() throws Exception {
+        //given : 재고보다 많은 차감 요청이 한 상품에 몰림
+        int threads = 64;
+        int stock = 10_000;
+        Item item = itemRepository.save(new Item("item", 10, stock));
+        AtomicInteger decreased = new AtomicInteger();
+
+        //when
+        runConcurrently(threads, 200, () -> {
+            if (itemRepository.decreaseQuantity(item.getId(), 1)) {
+                decreased.incrementAndGet();
+            }
+        });
+
+        //then : 재고만큼만 성공, 잃어버린 차감 없음
+        Item findItem = itemRepository.findById(item.getId()).get();
+        assertThat(decreased).hasValue(stock);
+        assertThat(findItem.getQuantity()).isZero();
+        assertThat(findItem.getVersion()).isEqualTo(stock);
+    }
+
+    @Test
+    void concurrentVersionedUpdatesLoseNothing() throws Exception {
+        //given
+        int threads = 16;
+        int increments = 500;
+        Item item = itemRepository.save(new Item("item", 10, 0));
+
+        //when : 읽은 버전으로 수량 + 1, 버전 충돌이면 다시 읽어서 재시도
+        runConcurrently(threads, increments, () -> {
+            while (true) {
+                Item findItem = itemRepository.findById(item.getId()).get();
+                try {
+                    itemRepository.update(item.getId(),
+                            new ItemUpdateDto(null, null, findItem.getQuantity() + 1, findItem.getVersion()));
+                    return;
+                } catch (OptimisticLockingFailureException e) {
+                    //=> 다른 스레드가 먼저 수정
+                }
+            }
+        });
+
+        //then : 성공한 수정마다 수량, 버전 1씩 증가
+        Item findItem = itemRepository.findById(item.getId()).get();
+        assertThat(findItem.getQuantity()).isEqualTo(threads * increments);
+        assertThat(findItem.getVersion()).isEqualTo(threads * increments);
+    }
+
+    private void runConcurrently(int threads, int opsPerThread, Runnable op) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    op.run();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+}
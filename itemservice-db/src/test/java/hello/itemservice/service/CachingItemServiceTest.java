@@ -0,0 +1,122 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingItemServiceTest {
+
+    MemoryItemRepository itemRepository = new MemoryItemRepository();
+    CachingItemService itemService = new CachingItemService(new ItemServiceV1(itemRepository), 100);
+
+    @Test
+    void findByIdHit() {
+        //given
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+
+        //when
+        itemService.findById(item.getId());
+        Item findItem = itemService.findById(item.getId()).get();
+
+        //then
+        assertThat(findItem).isEqualTo(item);
+        assertThat(itemService.stats().missCount()).isEqualTo(1);
+        assertThat(itemService.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void saveRefreshesCache() {
+        Item item = itemService.save(new Item("itemA", 10000, 10));
+
+        assertThat(itemService.findById(item.getId())).contains(item);
+        assertThat(itemService.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updateInvalidatesCache() {
+        //given
+        Item item = itemService.save(new Item("itemA", 10000, 10));
+
+        //when
+        itemService.update(item.getId(), new ItemUpdateDto("itemB", 20000, 20));
+
+        //then
+        Item findItem = itemService.findById(item.getId()).get();
+        assertThat(findItem.getItemName()).isEqualTo("itemB");
+        assertThat(itemService.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void repositoryWriteVisibleAfterTtl() throws InterruptedException {
+        //given : ItemService 를 거치지 않고 저장소를 직접 수정 (재고 차감)
+        CachingItemService itemService = new CachingItemService(new ItemServiceV1(itemRepository), 100,
+                Duration.ofMillis(50), 100, Duration.ofMillis(50));
+        Item item = itemService.save(new Item("itemA", 10000, 10));
+        itemRepository.decreaseQuantity(item.getId(), 3);
+        assertThat(itemService.findById(item.getId()).get().getQuantity()).isEqualTo(10);
+
+        //when
+        Thread.sleep(100);
+
+        //then
+        assertThat(itemService.findById(item.getId()).get().getQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    void returnsCopy() {
+        Item item = itemService.save(new Item("itemA", 10000, 10));
+
+        itemService.findById(item.getId()).get().setItemName("changed");
+
+        assertThat(itemService.findById(item.getId()).get().getItemName()).isEqualTo("itemA");
+    }
+
+    @Test
+    void missingItemIsNotCached() {
+        assertThat(itemService.findById(999L)).isEmpty();
+        assertThat(itemService.estimatedSize()).isZero();
+    }
+
+    @Test
+    void findItemsHitWithNormalizedCond() {
+        //given
+        Item item = itemService.save(new Item("itemA", 10000, 10));
+
+        //when
+        itemService.findItems(new ItemSearchCond("itemA", null));
+        List<Item> result = itemService.findItems(new ItemSearchCond("  itemA ", null));
+        itemService.findItems(new ItemSearchCond(null, null));
+        itemService.findItems(new ItemSearchCond("", null));
+
+        //then
+        assertThat(result).containsExactly(item);
+        assertThat(itemService.searchStats().hitCount()).isEqualTo(2);
+        assertThat(itemService.searchStats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void writeInvalidatesSearch() {
+        //given
+        Item item = itemService.save(new Item("itemA", 10000, 10));
+        itemService.findItems(new ItemSearchCond("item", null));
+
+        //when
+        itemService.update(item.getId(), new ItemUpdateDto("itemB", 20000, 20));
+        Item newItem = itemService.save(new Item("itemC", 30000, 30));
+
+        //then
+        assertThat(itemService.findItems(new ItemSearchCond("item", null)))
+                .extracting(Item::getItemName)
+                .containsExactly("itemB", "itemC");
+        assertThat(itemService.findItemPage(new ItemSearchCond("item", null, item.getId(), 10)).getContent())
+                .containsExactly(newItem);
+        assertThat(itemService.searchStats().hitCount()).isZero();
+    }
+}
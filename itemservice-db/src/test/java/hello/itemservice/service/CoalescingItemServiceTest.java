@@ -0,0 +1,183 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingItemServiceTest {
+
+    static final int THREADS = 16;
+
+    /**
+     * release 전까지 findById 를 막아 두는 저장소 (조회 중인 상태를 만듦)
+     */
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger findCount = new AtomicInteger();
+    AtomicBoolean fail = new AtomicBoolean();
+    AtomicReference<Error> error = new AtomicReference<>();
+    MemoryItemRepository itemRepository = new MemoryItemRepository() {
+        @Override
+        public Optional<Item> findById(Long id) {
+            findCount.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (error.get() != null) {
+                throw error.get();
+            }
+            if (fail.get()) {
+                throw new IllegalStateException("lookup failed");
+            }
+            return super.findById(id);
+        }
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLookupsShareOneCall() throws Exception {
+        //given
+        CoalescingItemService itemService = new CoalescingItemService(new ItemServiceV1(itemRepository));
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+
+        //when : 첫 조회가 끝나기 전에 나머지 요청이 모두 도착
+        List<Future<Optional<Item>>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> itemService.findById(item.getId())));
+        }
+        awaitCollapsed(itemService, THREADS - 1);
+        release.countDown();
+
+        //then
+        List<Item> items = new ArrayList<>();
+        for (Future<Optional<Item>> result : results) {
+            items.add(result.get(5, TimeUnit.SECONDS).get());
+        }
+        assertThat(items).allMatch(item::equals);
+        Set<Item> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        instances.addAll(items);
+        assertThat(instances).hasSize(THREADS); //=> 요청마다 복사본
+        assertThat(findCount).hasValue(1);
+        assertThat(itemService.lookupCount()).isEqualTo(1);
+        assertThat(itemService.collapsedCount()).isEqualTo(THREADS - 1);
+    }
+
+    @Test
+    void completedLookupIsNotSharedWithoutGraceWindow() {
+        CoalescingItemService itemService = new CoalescingItemService(new ItemServiceV1(itemRepository));
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        release.countDown();
+
+        itemService.findById(item.getId());
+        itemService.findById(item.getId());
+
+        assertThat(itemService.lookupCount()).isEqualTo(2);
+        assertThat(itemService.collapsedCount()).isZero();
+    }
+
+    @Test
+    void graceWindowSharesCompletedLookup() {
+        CoalescingItemService itemService = new CoalescingItemService(new ItemServiceV1(itemRepository), Duration.ofMinutes(1));
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        release.countDown();
+
+        itemService.findById(item.getId());
+        Item findItem = itemService.findById(item.getId()).get();
+
+        assertThat(findItem).isEqualTo(item);
+        assertThat(itemService.lookupCount()).isEqualTo(1);
+        assertThat(itemService.collapsedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updateDropsSharedLookup() {
+        //given
+        CoalescingItemService itemService = new CoalescingItemService(new ItemServiceV1(itemRepository), Duration.ofMinutes(1));
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        release.countDown();
+        itemService.findById(item.getId());
+
+        //when
+        itemService.update(item.getId(), new ItemUpdateDto("itemB", 20000, 20));
+
+        //then
+        assertThat(itemService.findById(item.getId()).get().getItemName()).isEqualTo("itemB");
+        assertThat(itemService.lookupCount()).isEqualTo(2);
+    }
+
+    @Test
+    void failureIsPropagatedAndNotShared() throws Exception {
+        //given
+        CoalescingItemService itemService = new CoalescingItemService(new ItemServiceV1(itemRepository), Duration.ofMinutes(1));
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        fail.set(true);
+
+        //when
+        Future<Optional<Item>> first = executor.submit(() -> itemService.findById(item.getId()));
+        Future<Optional<Item>> second = executor.submit(() -> itemService.findById(item.getId()));
+        awaitCollapsed(itemService, 1);
+        release.countDown();
+
+        //then : 기다리던 요청도 같은 예외, 이후 요청은 다시 조회
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        fail.set(false);
+        assertThat(itemService.findById(item.getId())).contains(item);
+        assertThat(itemService.lookupCount()).isEqualTo(2);
+    }
+
+    @Test
+    void errorIsPropagatedAndNotShared() throws Exception {
+        //given
+        CoalescingItemService itemService = new CoalescingItemService(new ItemServiceV1(itemRepository), Duration.ofMinutes(1));
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        error.set(new NoClassDefFoundError("lookup failed"));
+
+        //when
+        Future<Optional<Item>> first = executor.submit(() -> itemService.findById(item.getId()));
+        Future<Optional<Item>> second = executor.submit(() -> itemService.findById(item.getId()));
+        awaitCollapsed(itemService, 1);
+        release.countDown();
+
+        //then : 기다리던 요청도 끝나고, 조회 중으로 남지 않음
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(NoClassDefFoundError.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(NoClassDefFoundError.class);
+        error.set(null);
+        assertThat(itemService.findById(item.getId())).contains(item);
+        assertThat(itemService.lookupCount()).isEqualTo(2);
+    }
+
+    private void awaitCollapsed(CoalescingItemService itemService, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (itemService.collapsedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemBatchLoaderTest {
+
+    /**
+     * findAllByIds 호출마다 ID 목록 기록
+     */
+    List<List<Long>> batches = new CopyOnWriteArrayList<>();
+    AtomicBoolean fail = new AtomicBoolean();
+    AtomicReference<Error> error = new AtomicReference<>();
+    MemoryItemRepository itemRepository = new MemoryItemRepository() {
+        @Override
+        public List<Item> findAllByIds(Collection<Long> ids) {
+            batches.add(new ArrayList<>(ids));
+            if (error.get() != null) {
+                throw error.get();
+            }
+            if (fail.get()) {
+                throw new IllegalStateException("lookup failed");
+            }
+            return super.findAllByIds(ids);
+        }
+    };
+    ItemBatchLoader loader;
+
+    @AfterEach
+    void afterEach() {
+        loader.close();
+    }
+
+    @Test
+    void loadsWithinWindowShareOneQuery() throws Exception {
+        //given
+        loader = new ItemBatchLoader(itemRepository, Duration.ofMillis(50), 100);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(itemRepository.save(new Item("item" + i, 1000 * i, i)));
+        }
+
+        //when : 중복 ID, 없는 ID 포함
+        List<CompletableFuture<Optional<Item>>> futures = new ArrayList<>();
+        for (Item item : items) {
+            futures.add(loader.load(item.getId()));
+        }
+        CompletableFuture<Optional<Item>> duplicate = loader.load(items.get(0).getId());
+        CompletableFuture<Optional<Item>> missing = loader.load(-1L);
+
+        //then
+        for (int i = 0; i < items.size(); i++) {
+            assertThat(futures.get(i).get(1, TimeUnit.SECONDS)).contains(items.get(i));
+        }
+        assertThat(duplicate.get(1, TimeUnit.SECONDS)).contains(items.get(0));
+        assertThat(duplicate.get()).isNotSameAs(futures.get(0).get()); //=> 요청마다 복사본
+        assertThat(missing.get(1, TimeUnit.SECONDS)).isEmpty();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(11);
+        assertThat(loader.loadCount()).isEqualTo(12);
+        assertThat(loader.batchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void fullBatchIsDispatchedWithoutWaiting() {
+        //given : window 가 길어도 maxBatchSize 가 차면 바로 조회
+        loader = new ItemBatchLoader(itemRepository, Duration.ofMinutes(1), 3);
+        List<CompletableFuture<Optional<Item>>> futures = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 6; i++) {
+            Item item = itemRepository.save(new Item("item" + i, 1000, 1));
+            futures.add(loader.load(item.getId()));
+        }
+
+        //then
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).orTimeout(1, TimeUnit.SECONDS).join();
+        assertThat(batches).hasSize(2).allMatch(batch -> batch.size() == 3);
+    }
+
+    @Test
+    void failureIsPropagatedToBatch() {
+        loader = new ItemBatchLoader(itemRepository, Duration.ofMillis(10), 100);
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        fail.set(true);
+
+        assertThatThrownBy(() -> loader.findById(item.getId())).isInstanceOf(IllegalStateException.class);
+
+        fail.set(false);
+        assertThat(loader.findById(item.getId())).contains(item);
+    }
+
+    @Test
+    void errorIsPropagatedToAllLoads() throws Exception {
+        loader = new ItemBatchLoader(itemRepository, Duration.ofMillis(10), 100);
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+        error.set(new NoClassDefFoundError("lookup failed"));
+
+        CompletableFuture<Optional<Item>> future = loader.load(item.getId());
+        assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(NoClassDefFoundError.class);
+        assertThatThrownBy(() -> loader.findById(item.getId())).isInstanceOf(NoClassDefFoundError.class);
+
+        error.set(null);
+        assertThat(loader.findById(item.getId())).contains(item);
+    }
+
+    @Test
+    void closeDispatchesPendingLoads() throws Exception {
+        loader = new ItemBatchLoader(itemRepository, Duration.ofMinutes(1), 100);
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+
+        CompletableFuture<Optional<Item>> future = loader.load(item.getId());
+        loader.close();
+
+        assertThat(future.get(1, TimeUnit.SECONDS)).contains(item);
+    }
+}
@@ -0,0 +1,189 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemStockReservationTest {
+
+    AtomicBoolean failFlush = new AtomicBoolean();
+    AtomicBoolean rejectFlush = new AtomicBoolean();
+    /**
+     * 반영(decreaseQuantity) 중에 실행할 작업 (반영과 겹치는 예약)
+     */
+    AtomicReference<Runnable> duringFlush = new AtomicReference<>();
+    MemoryItemRepository itemRepository = new MemoryItemRepository() {
+        @Override
+        public boolean decreaseQuantity(Long itemId, int delta) {
+            if (failFlush.get()) {
+                throw new IllegalStateException("db down");
+            }
+            if (rejectFlush.get()) {
+                return false;
+            }
+            Runnable action = duringFlush.getAndSet(null);
+            if (action != null) {
+                action.run();
+            }
+            return super.decreaseQuantity(itemId, delta);
+        }
+    };
+    ItemStockReservation reservation;
+
+    @AfterEach
+    void afterEach() {
+        reservation.close();
+    }
+
+    @Test
+    void concurrentReserveNeverOversells() throws Exception {
+        //given
+        reservation = new ItemStockReservation(itemRepository, 8, Duration.ofMillis(5));
+        int stock = 5_000;
+        Item item = itemRepository.save(new Item("item", 10, stock));
+        AtomicInteger reserved = new AtomicInteger();
+
+        //when : 재고보다 많은 주문
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 300; i++) {
+                    if (reservation.reserve(item.getId(), 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        reservation.flush();
+
+        //then
+        assertThat(reserved).hasValue(stock);
+        assertThat(reservation.available(item.getId())).isZero();
+        assertThat(itemRepository.findById(item.getId()).get().getQuantity()).isZero();
+    }
+
+    @Test
+    void reserveDuringReconcileNeverOversells() throws Exception {
+        //given : 반영이 계속 거절됨 => flush 할 때마다 reconcile (DB 수량은 그대로)
+        reservation = new ItemStockReservation(itemRepository, 8, Duration.ofHours(1));
+        int stock = 200_000;
+        Item item = itemRepository.save(new Item("item", 10, stock));
+        reservation.available(item.getId());
+        rejectFlush.set(true);
+        AtomicInteger reserved = new AtomicInteger();
+
+        //when : 예약과 reconcile 이 겹침
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch done = new CountDownLatch(threads);
+        Future<?> reconciler = executor.submit(() -> {
+            while (done.getCount() > 0) {
+                reservation.flush();
+            }
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    for (int i = 0; i < stock / threads + 500; i++) {
+                        if (reservation.reserve(item.getId(), 1)) {
+                            reserved.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        reconciler.get();
+        executor.shutdown();
+
+        //then : 승인한 예약은 DB 수량 이하, 반영하면 정확히 0
+        assertThat(reserved).hasValue(stock);
+        rejectFlush.set(false);
+        reservation.flush();
+        assertThat(reservation.available(item.getId())).isZero();
+        assertThat(itemRepository.findById(item.getId()).get().getQuantity()).isZero();
+    }
+
+    @Test
+    void reserveGathersLeftoverShards() {
+        //given : 3개를 카운터 4개로 나눔 => 1, 1, 1, 0
+        reservation = new ItemStockReservation(itemRepository, 4, Duration.ofHours(1));
+        Item item = itemRepository.save(new Item("item", 10, 3));
+
+        //when, then
+        assertThat(reservation.reserve(item.getId(), 4)).isFalse();
+        assertThat(reservation.reserve(item.getId(), 3)).isTrue();
+        assertThat(reservation.reserve(item.getId(), 1)).isFalse();
+        assertThat(reservation.reserve(-1L, 1)).isFalse();
+    }
+
+    @Test
+    void flushWritesSoldQuantityAndRestartRecoversFromDb() {
+        //given
+        reservation = new ItemStockReservation(itemRepository, 4, Duration.ofHours(1));
+        Item item = itemRepository.save(new Item("item", 10, 100));
+        for (int i = 0; i < 10; i++) {
+            reservation.reserve(item.getId(), 3);
+        }
+        assertThat(itemRepository.findById(item.getId()).get().getQuantity()).isEqualTo(100);
+
+        //when : DB 반영 실패 => 다음 flush 에서 다시 반영
+        failFlush.set(true);
+        reservation.flush();
+        failFlush.set(false);
+        reservation.close();
+
+        //then : 재시작하면 DB 값에서 시작
+        assertThat(itemRepository.findById(item.getId()).get().getQuantity()).isEqualTo(70);
+        reservation = new ItemStockReservation(itemRepository, 4, Duration.ofHours(1));
+        assertThat(reservation.available(item.getId())).isEqualTo(70);
+    }
+
+    @Test
+    void rejectedFlushKeepsReservationsAndReconcilesWithDb() {
+        //given : 10개 중 3개 예약, 다른 경로로 DB 에서 8개 차감 => DB 2개
+        reservation = new ItemStockReservation(itemRepository, 4, Duration.ofHours(1));
+        Item item = itemRepository.save(new Item("item", 10, 10));
+        assertThat(reservation.reserve(item.getId(), 3)).isTrue();
+        itemRepository.decreaseQuantity(item.getId(), 8);
+
+        //when : 반영(3개) 중에 2개 예약 => 반영은 거절 (DB 2개 < 3개)
+        duringFlush.set(() -> assertThat(reservation.reserve(item.getId(), 2)).isTrue());
+        reservation.flush();
+
+        //then : DB 수량만큼만 남기고, 같은 재고를 다시 팔지 않음
+        assertThat(reservation.available(item.getId())).isZero();
+        assertThat(reservation.reserve(item.getId(), 1)).isFalse();
+        reservation.flush();
+        assertThat(itemRepository.findById(item.getId()).get().getQuantity()).isZero();
+    }
+}
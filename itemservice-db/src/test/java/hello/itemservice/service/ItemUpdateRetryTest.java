@@ -0,0 +1,97 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemUpdateRetryTest {
+
+    static final int THREADS = 16;
+    static final int UPDATES_PER_THREAD = 50;
+
+    MemoryItemRepository itemRepository = new MemoryItemRepository();
+    ItemService itemService = new ItemServiceV1(itemRepository);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void conflictIsRetriedWithLatestValue() {
+        //given
+        ItemUpdateRetry retry = new ItemUpdateRetry(itemService, 3, Duration.ZERO);
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+
+        //when : 첫 시도에서 값을 계산하는 사이 다른 요청이 먼저 수정
+        List<Integer> seenQuantities = new ArrayList<>();
+        retry.update(item.getId(), findItem -> {
+            seenQuantities.add(findItem.getQuantity());
+            if (seenQuantities.size() == 1) {
+                itemService.update(item.getId(), new ItemUpdateDto("itemA", 10000, 20));
+            }
+            return new ItemUpdateDto(findItem.getItemName(), findItem.getPrice(), findItem.getQuantity() - 1);
+        });
+
+        //then : 다시 읽은 값(20)에서 1 감소 => 먼저 수정한 값을 덮어쓰지 않음
+        assertThat(seenQuantities).containsExactly(10, 20);
+        assertThat(itemService.findById(item.getId()).get().getQuantity()).isEqualTo(19);
+        assertThat(retry.conflictCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lastConflictIsThrownAfterMaxAttempts() {
+        ItemUpdateRetry retry = new ItemUpdateRetry(itemService, 3, Duration.ZERO);
+        Item item = itemRepository.save(new Item("itemA", 10000, 10));
+
+        //매번 다른 요청이 먼저 수정
+        assertThatThrownBy(() -> retry.update(item.getId(), findItem -> {
+            itemService.update(item.getId(), new ItemUpdateDto("itemB", 10000, 10));
+            return new ItemUpdateDto("itemC", 10000, 10);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(itemService.findById(item.getId()).get().getItemName()).isEqualTo("itemB");
+        assertThat(retry.conflictCount()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        //given
+        ItemUpdateRetry retry = new ItemUpdateRetry(itemService, Integer.MAX_VALUE, Duration.ofNanos(100));
+        Item item = itemRepository.save(new Item("itemA", 10000, 0));
+
+        //when : 같은 상품의 수량을 동시에 1씩 증가 (read-modify-write)
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < UPDATES_PER_THREAD; j++) {
+                    retry.update(item.getId(), findItem ->
+                            new ItemUpdateDto(findItem.getItemName(), findItem.getPrice(), findItem.getQuantity() + 1));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        //then
+        Item findItem = itemService.findById(item.getId()).get();
+        assertThat(findItem.getQuantity()).isEqualTo(THREADS * UPDATES_PER_THREAD);
+        assertThat(findItem.getVersion()).isEqualTo(THREADS * UPDATES_PER_THREAD);
+    }
+}
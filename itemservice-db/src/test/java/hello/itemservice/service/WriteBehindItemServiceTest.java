@@ -0,0 +1,201 @@
+package hello.itemservice.service;
+
+import hello.itemservice.domain.Item;
+import hello.itemservice.repository.ItemSearchCond;
+import hello.itemservice.repository.ItemUpdateDto;
+import hello.itemservice.repository.memory.MemoryItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteBehindItemServiceTest {
+
+    /**
+     * updateAll 호출마다 반영한 ID 기록
+     */
+    List<Map<Long, ItemUpdateDto>> writes = new CopyOnWriteArrayList<>();
+    AtomicBoolean dbDown = new AtomicBoolean();
+    /**
+     * 수정하면 제약 조건 위반이 나는 상품
+     */
+    Set<Long> invalidIds = ConcurrentHashMap.newKeySet();
+    MemoryItemRepository itemRepository = new MemoryItemRepository() {
+        @Override
+        public void updateAll(Map<Long, ItemUpdateDto> updateParams) {
+            if (dbDown.get()) {
+                throw new DataAccessResourceFailureException("db down");
+            }
+            writes.add(Map.copyOf(updateParams));
+            super.updateAll(updateParams);
+        }
+
+        @Override
+        public void update(Long itemId, ItemUpdateDto updateParam) {
+            if (invalidIds.contains(itemId)) {
+                throw new DataIntegrityViolationException("value too long. id=" + itemId);
+            }
+            super.update(itemId, updateParam);
+        }
+    };
+    WriteBehindItemService itemService;
+
+    @AfterEach
+    void afterEach() {
+        itemService.close();
+    }
+
+    @Test
+    void updatesAreCoalescedAndReadBeforeFlush() {
+        //given
+        itemService = new WriteBehindItemService(new ItemServiceV1(itemRepository), 100, Duration.ofHours(1));
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+
+        //when : 같은 상품 가격을 여러 번 수정
+        for (int price = 10001; price <= 10100; price++) {
+            itemService.update(itemA.getId(), new ItemUpdateDto("itemA", price, 10));
+        }
+        itemService.update(itemB.getId(), new ItemUpdateDto("itemB", 25000, 20));
+
+        //then : 반영 전에도 마지막 값이 보임
+        assertThat(itemRepository.findById(itemA.getId()).get().getPrice()).isEqualTo(10000);
+        assertThat(itemService.findById(itemA.getId()).get().getPrice()).isEqualTo(10100);
+        assertThat(itemService.findItems(new ItemSearchCond()))
+                .extracting(Item::getPrice).containsExactlyInAnyOrder(10100, 25000);
+
+        //then : updateAll 한 번, 상품당 한 건
+        itemService.flush();
+        assertThat(writes).hasSize(1);
+        assertThat(writes.get(0)).containsOnlyKeys(itemA.getId(), itemB.getId());
+        assertThat(itemRepository.findById(itemA.getId()).get().getPrice()).isEqualTo(10100);
+        assertThat(itemService.updateCount()).isEqualTo(101);
+        assertThat(itemService.writeCount()).isEqualTo(2);
+        assertThat(itemService.pendingCount()).isZero();
+    }
+
+    @Test
+    void partialUpdatesAreMerged() {
+        //given
+        itemService = new WriteBehindItemService(new ItemServiceV1(itemRepository), 100, Duration.ofHours(1));
+        Item item = itemRepository.save(new Item("item", 10000, 10));
+
+        //when : 가격만, 수량만 따로 수정
+        itemService.update(item.getId(), new ItemUpdateDto(null, 11000, null));
+        itemService.update(item.getId(), new ItemUpdateDto(null, null, 5));
+        itemService.flush();
+
+        //then : 한 건으로 합쳐서 둘 다 반영
+        assertThat(writes).hasSize(1);
+        Item findItem = itemRepository.findById(item.getId()).get();
+        assertThat(findItem.getItemName()).isEqualTo("item");
+        assertThat(findItem.getPrice()).isEqualTo(11000);
+        assertThat(findItem.getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void fullBufferFlushesAndCloseWritesTheRest() {
+        //given
+        itemService = new WriteBehindItemService(new ItemServiceV1(itemRepository), 2, Duration.ofHours(1));
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        Item itemC = itemRepository.save(new Item("itemC", 30000, 30));
+
+        //when
+        itemService.update(itemA.getId(), new ItemUpdateDto("itemA", 11000, 10));
+        itemService.update(itemB.getId(), new ItemUpdateDto("itemB", 21000, 20)); //=> 2건 => 바로 반영
+        itemService.update(itemC.getId(), new ItemUpdateDto("itemC", 31000, 30));
+        assertThat(writes).hasSize(1);
+        itemService.close();
+
+        //then
+        assertThat(writes).hasSize(2);
+        assertThat(itemRepository.findById(itemC.getId()).get().getPrice()).isEqualTo(31000);
+    }
+
+    @Test
+    void failingItemIsDroppedAndOthersAreWritten() {
+        //given
+        itemService = new WriteBehindItemService(new ItemServiceV1(itemRepository), 100, Duration.ofHours(1));
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        Item itemC = itemRepository.save(new Item("itemC", 30000, 30));
+        invalidIds.add(itemB.getId());
+        itemService.update(itemA.getId(), new ItemUpdateDto(null, 11000, null));
+        itemService.update(itemB.getId(), new ItemUpdateDto(null, 21000, null));
+        itemService.update(itemC.getId(), new ItemUpdateDto(null, 31000, null));
+
+        //when : updateAll 실패 => 한 건씩 반영
+        itemService.flush();
+
+        //then : 실패한 상품만 버리고 나머지는 반영
+        assertThat(itemRepository.findById(itemA.getId()).get().getPrice()).isEqualTo(11000);
+        assertThat(itemRepository.findById(itemB.getId()).get().getPrice()).isEqualTo(20000);
+        assertThat(itemRepository.findById(itemC.getId()).get().getPrice()).isEqualTo(31000);
+        assertThat(itemService.pendingCount()).isZero();
+        assertThat(itemService.droppedCount()).isEqualTo(1);
+        assertThat(itemService.writeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void fullBufferRejectsNewItemsWhileDbIsDown() {
+        //given : DB 연결 실패 => 버퍼에 남김
+        itemService = new WriteBehindItemService(new ItemServiceV1(itemRepository), 2, Duration.ofHours(1));
+        Item itemA = itemRepository.save(new Item("itemA", 10000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 20));
+        Item itemC = itemRepository.save(new Item("itemC", 30000, 30));
+        dbDown.set(true);
+        itemService.update(itemA.getId(), new ItemUpdateDto(null, 11000, null));
+        itemService.update(itemB.getId(), new ItemUpdateDto(null, 21000, null));
+        assertThat(itemService.pendingCount()).isEqualTo(2);
+
+        //when, then : 새 상품은 거절, 버퍼에 있는 상품은 합쳐서 받음
+        assertThatThrownBy(() -> itemService.update(itemC.getId(), new ItemUpdateDto(null, 31000, null)))
+                .isInstanceOf(TransientDataAccessResourceException.class);
+        itemService.update(itemA.getId(), new ItemUpdateDto(null, 12000, null));
+        assertThat(itemService.pendingCount()).isEqualTo(2);
+        assertThat(itemService.droppedCount()).isZero();
+
+        //then : 복구되면 반영하고 다시 받음
+        dbDown.set(false);
+        itemService.flush();
+        itemService.update(itemC.getId(), new ItemUpdateDto(null, 31000, null));
+        itemService.flush();
+        assertThat(itemRepository.findById(itemA.getId()).get().getPrice()).isEqualTo(12000);
+        assertThat(itemRepository.findById(itemB.getId()).get().getPrice()).isEqualTo(21000);
+        assertThat(itemRepository.findById(itemC.getId()).get().getPrice()).isEqualTo(31000);
+    }
+
+    @Test
+    void versionedUpdateWritesBufferFirst() {
+        //given
+        itemService = new WriteBehindItemService(new ItemServiceV1(itemRepository), 100, Duration.ofHours(1));
+        Item item = itemRepository.save(new Item("item", 10000, 10));
+        Long version = itemService.findById(item.getId()).get().getVersion();
+        itemService.update(item.getId(), new ItemUpdateDto("item", 11000, 10));
+
+        //when : 버퍼에 있던 수정이 먼저 반영됨 => 이전에 읽은 버전은 충돌
+        assertThatThrownBy(() -> itemService.update(item.getId(), new ItemUpdateDto("item", 12000, 10, version)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        //then : 최신 버전으로는 바로 수정
+        Item findItem = itemService.findById(item.getId()).get();
+        assertThat(findItem.getPrice()).isEqualTo(11000);
+        itemService.update(item.getId(), new ItemUpdateDto("item", 12000, 10, findItem.getVersion()));
+        assertThat(itemRepository.findById(item.getId()).get().getPrice()).isEqualTo(12000);
+        assertThat(itemService.pendingCount()).isZero();
+    }
+}
@@ -0,0 +1,9 @@
+-- 상품명 3-gram 색인 (sql/item_trigram_migration.sql 과 같음, 임베디드 H2 는 테스트 클래스패스의 트리거 사용)
+create table item_trigram
+(
+    gram varchar(3) not null,
+    item_id bigint not null,
+    primary key (gram, item_id)
+);
+create trigger item_name_index after insert, update, delete on item
+    for each row call "hello.itemservice.repository.h2.ItemNameIndexTrigger";